@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Runs the JMH suites with the GC profiler and compares the results with results/baseline.json.
+#
+#   ./run.sh                      all benchmarks
+#   ./run.sh TrackChanges         benchmarks matching a regex
+#   ./run.sh --save-baseline      run everything and make the results the new baseline
+#
+# A benchmark is reported as a regression when its score or its normalized allocation
+# (gc.alloc.rate.norm, bytes per operation) is more than THRESHOLD percent above the baseline.
+# Compare only results measured on the same machine and JDK. Requires jq for the comparison.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+THRESHOLD="${THRESHOLD:-10}"
+SAVE_BASELINE=false
+if [[ "${1:-}" == "--save-baseline" ]]; then
+    SAVE_BASELINE=true
+    shift
+fi
+
+java -jar target/benchmarks.jar -prof gc -rf json -rff results/latest.json "$@"
+
+if [[ "${SAVE_BASELINE}" == true ]]; then
+    cp results/latest.json results/baseline.json
+    echo "Saved results/baseline.json"
+    exit 0
+fi
+
+if [[ ! -f results/baseline.json ]]; then
+    echo "No results/baseline.json yet; create one with ./run.sh --save-baseline"
+    exit 0
+fi
+
+jq -r -n --argjson threshold "${THRESHOLD}" \
+    --slurpfile baseline results/baseline.json --slurpfile current results/latest.json '
+    def name: .benchmark + ((.params // {}) | to_entries | map("\(.key)=\(.value)") | join(",")
+        | if . == "" then "" else "[" + . + "]" end);
+    def alloc: [(.secondaryMetrics // {}) | to_entries[] | select(.key | endswith("gc.alloc.rate.norm"))
+        | .value.score][0];
+    def r: if . == null then "-" else round end;
+    def change(old; new): if old == null or new == null or old == 0 then 0 else (new - old) * 100 / old end;
+    ($baseline[0] | map({key: name, value: .}) | from_entries) as $base
+    | ["benchmark", "score", "baseline", "change%", "B/op", "baseline B/op", "change%", ""],
+      ($current[0][] | name as $name | select($base[$name] != null)
+        | $base[$name] as $old
+        | change($old.primaryMetric.score; .primaryMetric.score) as $time
+        | change($old | alloc; alloc) as $bytes
+        | [$name, (.primaryMetric.score * 1000 | round / 1000), ($old.primaryMetric.score * 1000 | round / 1000),
+           ($time | round), (alloc | r), ($old | alloc | r), ($bytes | round),
+           (if $time > $threshold or $bytes > $threshold then "REGRESSION" else "" end)])
+    | @tsv' | tee results/comparison.txt
+
+! grep -q REGRESSION results/comparison.txt
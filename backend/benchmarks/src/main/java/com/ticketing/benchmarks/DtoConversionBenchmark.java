@@ -0,0 +1,158 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.api.dto.CommentDTO;
+import com.ticketing.api.dto.TicketDTO;
+import com.ticketing.api.dto.TicketHistoryDTO;
+import com.ticketing.api.dto.UserDTO;
+import com.ticketing.api.entity.Comment;
+import com.ticketing.api.entity.Ticket;
+import com.ticketing.api.entity.TicketHistory;
+import com.ticketing.api.entity.User;
+import com.ticketing.api.enums.Role;
+import com.ticketing.api.mapper.CategoryMapper;
+import com.ticketing.api.mapper.CommentMapper;
+import com.ticketing.api.mapper.TicketHistoryMapper;
+import com.ticketing.api.mapper.TicketMapper;
+import com.ticketing.api.mapper.UserMapper;
+import com.ticketing.api.repository.TicketHistoryRepository;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.repository.projection.TicketRow;
+import com.ticketing.api.service.TicketHistoryService;
+import com.ticketing.api.service.TicketService;
+import com.ticketing.api.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/row to DTO conversion for one response page: the hand-written service conversions
+ * next to the MapStruct mappers for the same types. The services are called through their
+ * public read methods, backed by repository stand-ins that hand back the fixtures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class DtoConversionBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private TicketService ticketService;
+    private TicketHistoryService historyService;
+    private UserService userService;
+    private TicketMapper ticketMapper;
+    private CommentMapper commentMapper;
+    private TicketHistoryMapper historyMapper;
+
+    private List<Ticket> tickets;
+    private List<TicketHistory> history;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        tickets = Fixtures.tickets(pageSize);
+        history = new ArrayList<>(pageSize);
+        comments = new ArrayList<>(pageSize);
+        List<User> users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Ticket ticket = tickets.get(i);
+            history.add(Fixtures.history(i + 1, ticket));
+            comments.add(Fixtures.comment(i + 1, ticket));
+            users.add(Fixtures.user(i + 1, Role.AGENT));
+        }
+
+        // Each stand-in answers only the queries of the read path being measured
+        Map<Long, Ticket> ticketsById = new HashMap<>();
+        tickets.forEach(ticket -> ticketsById.put(ticket.getId(), ticket));
+        List<TicketRow> rows = Fixtures.ticketRows(pageSize);
+        TicketRepository ticketRepository = Fixtures.repository(TicketRepository.class, Map.of(
+                "findByIdWithDetails", args -> Optional.ofNullable(ticketsById.get((Long) args[0])),
+                "findAllTicketRows", args -> rows,
+                "findCreatedAtById", args -> Optional.of(tickets.get(0).getCreatedAt())));
+        TicketHistoryRepository historyRepository = Fixtures.repository(TicketHistoryRepository.class,
+                Map.of("findByTicketIdSince", args -> history));
+        UserRepository userRepository = Fixtures.repository(UserRepository.class,
+                Map.of("findAll", args -> users));
+
+        ticketService = new TicketService(ticketRepository, null, null, null, null, null, null, null, null, null, null,
+                null, Fixtures.noTransactions(), 1, 1);
+        historyService = new TicketHistoryService(historyRepository, ticketRepository, null, null, null, null);
+        userService = new UserService(userRepository, null, null, null);
+
+        Map<Class<?>, Object> mappers = Fixtures.mappers(TicketMapper.class, CommentMapper.class,
+                TicketHistoryMapper.class, UserMapper.class, CategoryMapper.class);
+        ticketMapper = (TicketMapper) mappers.get(TicketMapper.class);
+        commentMapper = (CommentMapper) mappers.get(CommentMapper.class);
+        historyMapper = (TicketHistoryMapper) mappers.get(TicketHistoryMapper.class);
+    }
+
+    @Benchmark
+    public List<TicketDTO> ticketServiceEntity() {
+        List<TicketDTO> result = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            result.add(ticketService.getTicketById(ticket.getId()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TicketDTO> ticketServiceRow() {
+        return ticketService.getAllTickets();
+    }
+
+    @Benchmark
+    public List<TicketDTO> ticketMapper() {
+        List<TicketDTO> result = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            result.add(ticketMapper.toDTO(ticket));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TicketHistoryDTO> historyService() {
+        return historyService.getHistoryByTicketId(tickets.get(0).getId());
+    }
+
+    @Benchmark
+    public List<TicketHistoryDTO> historyMapper() {
+        List<TicketHistoryDTO> result = new ArrayList<>(history.size());
+        for (TicketHistory item : history) {
+            result.add(historyMapper.toDTO(item));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CommentDTO> commentMapper() {
+        List<CommentDTO> result = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            result.add(commentMapper.toDTO(comment));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserDTO> userService() {
+        return userService.getAllUsers();
+    }
+}
@@ -0,0 +1,196 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.api.entity.Category;
+import com.ticketing.api.entity.Comment;
+import com.ticketing.api.entity.Ticket;
+import com.ticketing.api.entity.TicketHistory;
+import com.ticketing.api.entity.User;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Role;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.repository.projection.TicketRow;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Deterministic sample data shaped like production rows, plus repository stand-ins so the
+ * services can be driven through their public methods without a database.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 9, 30);
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private Fixtures() {
+    }
+
+    static User user(long id, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setFirstName("First" + id);
+        user.setLastName("Lastname" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setRole(role);
+        user.setDepartment("Support");
+        user.setAvatarUrl("https://avatars.example.com/" + id + ".png");
+        return user;
+    }
+
+    static Category category(long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("Category " + id);
+        category.setDescription("Tickets about area " + id);
+        return category;
+    }
+
+    static Ticket ticket(long id) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setSubject("Printer on floor " + (id % 12) + " keeps jamming on duplex jobs");
+        ticket.setDescription(("The printer reports a paper jam on every duplex job since the last firmware update. "
+                + "Single-sided printing works. Ticket " + id + ". ").repeat(4));
+        ticket.setStatus(STATUSES[(int) (id % STATUSES.length)]);
+        ticket.setPriority(PRIORITIES[(int) (id % PRIORITIES.length)]);
+        ticket.setCreatedAt(BASE_TIME.plusMinutes(id));
+        ticket.setUpdatedAt(BASE_TIME.plusMinutes(id + 90));
+        ticket.setDueDate(BASE_TIME.plusDays(3).plusMinutes(id));
+        ticket.setCategory(category(1 + id % 8));
+        ticket.setCreatedBy(user(100 + id % 50, Role.USER));
+        if (id % 4 != 0) {
+            ticket.setAssignedTo(user(10 + id % 10, Role.AGENT));
+        }
+        return ticket;
+    }
+
+    static List<Ticket> tickets(int count) {
+        List<Ticket> tickets = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            tickets.add(ticket(i));
+        }
+        return tickets;
+    }
+
+    static TicketRow ticketRow(long id) {
+        Ticket ticket = ticket(id);
+        User assignee = ticket.getAssignedTo();
+        return new TicketRow(ticket.getId(), ticket.getSubject(), ticket.getDescription(), ticket.getStatus(),
+                ticket.getPriority(), ticket.getCreatedAt(), ticket.getUpdatedAt(), ticket.getResolvedAt(),
+                ticket.getClosedAt(), ticket.getDueDate(), ticket.getCategory().getId(), ticket.getCategory().getName(),
+                ticket.getCreatedBy().getId(), ticket.getCreatedBy().getFirstName(), ticket.getCreatedBy().getLastName(),
+                assignee != null ? assignee.getId() : null,
+                assignee != null ? assignee.getFirstName() : null,
+                assignee != null ? assignee.getLastName() : null);
+    }
+
+    static List<TicketRow> ticketRows(int count) {
+        List<TicketRow> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(ticketRow(i));
+        }
+        return rows;
+    }
+
+    static TicketHistory history(long id, Ticket ticket) {
+        TicketHistory history = new TicketHistory();
+        history.setId(id);
+        history.setField(id % 2 == 0 ? "status" : "priority");
+        history.setOldValue(id % 2 == 0 ? Status.OPEN.name() : Priority.LOW.name());
+        history.setNewValue(id % 2 == 0 ? Status.IN_PROGRESS.name() : Priority.HIGH.name());
+        history.setCreatedAt(ticket.getCreatedAt().plusMinutes(id));
+        history.setTicket(ticket);
+        history.setUser(user(10 + id % 10, Role.AGENT));
+        return history;
+    }
+
+    static Comment comment(long id, Ticket ticket) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("Tried reseating the duplex unit, the jam persists. Comment " + id + ".");
+        comment.setCreatedAt(ticket.getCreatedAt().plusMinutes(id));
+        comment.setTicket(ticket);
+        comment.setUser(user(10 + id % 10, Role.AGENT));
+        return comment;
+    }
+
+    /**
+     * A repository stand-in answering the named methods and failing on anything else, so a
+     * benchmark notices if the code under test starts issuing other queries.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> R repository(Class<R> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) {
+                        return answer.apply(args);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // A repository that only answers findById, always with the same entity
+    static <R> R findByIdStub(Class<R> repositoryType, Object entity) {
+        return repository(repositoryType, Map.of("findById", args -> Optional.of(entity)));
+    }
+
+    // Runs transaction callbacks as they are; behind repository stand-ins there is nothing to commit
+    static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /**
+     * Instantiates the generated MapStruct implementations and wires the mappers they use into each
+     * other, as Spring would. Repository fields stay null; the toDTO directions never touch them.
+     */
+    static Map<Class<?>, Object> mappers(Class<?>... mapperTypes) {
+        Map<Class<?>, Object> mappers = new HashMap<>();
+        for (Class<?> type : mapperTypes) {
+            mappers.put(type, Mappers.getMapper(type));
+        }
+        for (Object mapper : mappers.values()) {
+            for (Class<?> type = mapper.getClass(); type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    Object dependency = mappers.get(field.getType());
+                    if (dependency != null) {
+                        try {
+                            field.setAccessible(true);
+                            field.set(mapper, dependency);
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException("Cannot wire " + field, e);
+                        }
+                    }
+                }
+            }
+        }
+        return mappers;
+    }
+}
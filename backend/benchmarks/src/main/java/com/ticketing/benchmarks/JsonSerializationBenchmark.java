@@ -0,0 +1,112 @@
+package com.ticketing.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketing.api.dto.StatsDTO;
+import com.ticketing.api.dto.TicketDTO;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.service.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization with an ObjectMapper configured the way Spring Boot configures the
+ * one behind the REST controllers: a {@code /tickets/paged} page and a {@code /stats} body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<TicketDTO> ticketPage;
+    private StatsDTO stats;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+
+        // The page content as the service builds it from the projection rows
+        TicketRepository ticketRepository = Fixtures.repository(TicketRepository.class,
+                Map.of("findAllTicketRows", args -> Fixtures.ticketRows(pageSize)));
+        TicketService ticketService = new TicketService(ticketRepository, null, null, null, null, null, null, null,
+                null, null, null, null, null, 1, 1);
+        List<TicketDTO> content = ticketService.getAllTickets();
+        ticketPage = new PageImpl<>(content, PageRequest.of(0, pageSize), 250_000);
+        stats = stats();
+    }
+
+    @Benchmark
+    public byte[] ticketPage() throws Exception {
+        return objectMapper.writeValueAsBytes(ticketPage);
+    }
+
+    @Benchmark
+    public byte[] overallStats() throws Exception {
+        return objectMapper.writeValueAsBytes(stats);
+    }
+
+    private static StatsDTO stats() {
+        List<StatsDTO.CategoryStatsDTO> categories = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            categories.add(new StatsDTO.CategoryStatsDTO(id, "Category " + id, 1_000L * id, 12.5));
+        }
+        List<StatsDTO.AgentStatsDTO> agents = new ArrayList<>();
+        for (long id = 10; id < 30; id++) {
+            agents.add(new StatsDTO.AgentStatsDTO(id, "First" + id + " Lastname" + id, 400L + id, 350L + id,
+                    Duration.ofHours(id)));
+        }
+        Map<String, Long> created = new LinkedHashMap<>();
+        Map<String, Long> resolved = new LinkedHashMap<>();
+        for (int month = 1; month <= 12; month++) {
+            String key = String.format("2024-%02d", month);
+            created.put(key, 2_000L + month);
+            resolved.put(key, 1_800L + month);
+        }
+        return StatsDTO.builder()
+                .totalTickets(250_000L)
+                .openTickets(12_000L)
+                .inProgressTickets(8_000L)
+                .resolvedTickets(30_000L)
+                .closedTickets(200_000L)
+                .highPriorityCount(40_000L)
+                .mediumPriorityCount(120_000L)
+                .lowPriorityCount(90_000L)
+                .avgResponseTime(Duration.ofMinutes(95))
+                .avgResolutionTime(Duration.ofHours(31))
+                .categoriesStats(categories)
+                .agentStats(agents)
+                .ticketsCreatedByMonth(created)
+                .ticketsResolvedByMonth(resolved)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.api.dto.TicketDTO;
+import com.ticketing.api.entity.Category;
+import com.ticketing.api.entity.Ticket;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.repository.CategoryRepository;
+import com.ticketing.api.service.TicketHistoryService;
+import com.ticketing.api.service.TicketHistoryWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TicketHistoryService.trackChanges}, the diff run on every ticket update, for an update that
+ * changes nothing, one that changes subject and priority, and one that changes the category
+ * (which also resolves the new category's name). History events are captured in memory instead
+ * of going to the JDBC batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class TrackChangesBenchmark {
+
+    @Param({"none", "subjectAndPriority", "category"})
+    private String change;
+
+    private CapturingWriter writer;
+    private TicketHistoryService historyService;
+    private Ticket existing;
+    private TicketDTO update;
+    private final Long userId = 10L;
+
+    @Setup
+    public void setUp() {
+        writer = new CapturingWriter();
+        Category newCategory = Fixtures.category(42);
+        historyService = new TicketHistoryService(null, null, null,
+                Fixtures.findByIdStub(CategoryRepository.class, newCategory), writer, null);
+
+        existing = Fixtures.ticket(7);
+        update = new TicketDTO();
+        update.setSubject(existing.getSubject());
+        update.setPriority(existing.getPriority());
+        update.setCategoryId(existing.getCategory().getId());
+        switch (change) {
+            case "subjectAndPriority" -> {
+                update.setSubject(existing.getSubject() + " (all floors)");
+                update.setPriority(existing.getPriority() == Priority.HIGH ? Priority.LOW : Priority.HIGH);
+            }
+            case "category" -> update.setCategoryId(newCategory.getId());
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public TicketHistoryWriter.HistoryEvent trackChanges() {
+        historyService.trackChanges(existing, update, userId);
+        return writer.last;
+    }
+
+    // Keeps the latest event so the benchmark can return it; nothing is written anywhere
+    private static final class CapturingWriter extends TicketHistoryWriter {
+
+        private HistoryEvent last;
+
+        CapturingWriter() {
+            super(null, null, null, "sync", 1, 1, 1);
+        }
+
+        @Override
+        public void write(HistoryEvent event) {
+            last = event;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Compares request throughput of the platform-thread and virtual-thread execution modes.
+#
+# Start the API once per mode against the same database, then run this script for each:
+#   java -jar target/api-0.0.1-SNAPSHOT-exec.jar --app.threads.virtual.enabled=false
+#   java -jar target/api-0.0.1-SNAPSHOT-exec.jar --app.threads.virtual.enabled=true
+#
+# Requires hey (https://github.com/rakyll/hey). TOKEN is a bearer token for any active user.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8081/api}"
+CONCURRENCY="${CONCURRENCY:-2000}"
+DURATION="${DURATION:-60s}"
+TICKET_ID="${TICKET_ID:-1}"
+MODE="${MODE:-unlabelled}"
+: "${TOKEN:?set TOKEN to a bearer token}"
+
+run() {
+    local name="$1" url="$2"
+    echo "== ${MODE}: ${name} (${CONCURRENCY} clients, ${DURATION})"
+    hey -z "${DURATION}" -c "${CONCURRENCY}" -H "Authorization: Bearer ${TOKEN}" "${url}" \
+        | grep -E "Requests/sec|Average|99% in|Status code|\[[0-9]+\]"
+}
+
+# Warm up the JIT, caches and connection pool before measuring
+hey -z 15s -c 200 -H "Authorization: Bearer ${TOKEN}" "${BASE_URL}/tickets/paged?page=0&size=20" > /dev/null
+
+run "GET /tickets/paged" "${BASE_URL}/tickets/paged?page=0&size=20"
+run "GET /tickets/{id}" "${BASE_URL}/tickets/${TICKET_ID}"
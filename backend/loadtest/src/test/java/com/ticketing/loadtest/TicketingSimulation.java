@@ -0,0 +1,159 @@
+package com.ticketing.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.feed;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.rampUsers;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Mixed workload against an API started with the {@code loadtest} profile (seeded database,
+ * local JWT issuer). Each virtual user takes a token for a seeded account once, then loops over
+ * its scenario for the test duration. Request names are fixed per endpoint, so the Gatling
+ * report gives p50/p95/p99 and throughput for each of them.
+ * <p>
+ * Tune with system properties, e.g. {@code -DdetailUsers=500 -DduringMinutes=15}. The
+ * {@code seeded*} values must match the {@code app.loadtest.seed.*} settings of the API.
+ */
+public class TicketingSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8081/api");
+    private static final int SEEDED_AGENTS = Integer.getInteger("seededAgents", 200);
+    private static final int SEEDED_USERS = Integer.getInteger("seededUsers", 5000);
+    private static final long SEEDED_TICKETS = Long.getLong("seededTickets", 2_000_000L);
+
+    private static final int DASHBOARD_USERS = Integer.getInteger("dashboardUsers", 100);
+    private static final int DETAIL_USERS = Integer.getInteger("detailUsers", 300);
+    private static final int SEARCH_USERS = Integer.getInteger("searchUsers", 100);
+    private static final int COMMENT_USERS = Integer.getInteger("commentUsers", 50);
+    private static final int TRIAGE_USERS = Integer.getInteger("triageUsers", 10);
+    private static final int TRIAGE_BATCH = Integer.getInteger("triageBatch", 50);
+
+    private static final Duration RAMP = Duration.ofSeconds(Integer.getInteger("rampSeconds", 60));
+    private static final Duration DURING = Duration.ofMinutes(Integer.getInteger("duringMinutes", 10));
+
+    // The vocabulary the seeder builds subjects and descriptions from
+    private static final List<String> SEARCH_TERMS = List.of(
+            "printer", "network", "email", "vpn", "laptop", "password", "monitor",
+            "database", "phone", "badge", "wifi", "license", "printer update", "vpn problem", "wif");
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json");
+
+    private static Iterator<Map<String, Object>> accounts(String prefix, int count) {
+        return Stream.generate(() -> Map.<String, Object>of(
+                "username", prefix + (1 + ThreadLocalRandom.current().nextInt(count)))).iterator();
+    }
+
+    private static final Iterator<Map<String, Object>> TICKETS = Stream.generate(() -> Map.<String, Object>of(
+            "ticketId", 1 + ThreadLocalRandom.current().nextLong(SEEDED_TICKETS))).iterator();
+
+    private static final Iterator<Map<String, Object>> TERMS = Stream.generate(() -> Map.<String, Object>of(
+            "term", SEARCH_TERMS.get(ThreadLocalRandom.current().nextInt(SEARCH_TERMS.size())))).iterator();
+
+    private static final Iterator<Map<String, Object>> TRIAGE_BATCHES = Stream.generate(() -> Map.<String, Object>of(
+            "ticketIds", LongStream.generate(() -> 1 + ThreadLocalRandom.current().nextLong(SEEDED_TICKETS))
+                    .limit(TRIAGE_BATCH)
+                    .mapToObj(Long::toString)
+                    .collect(Collectors.joining(",", "[", "]")))).iterator();
+
+    // Local issuer from the loadtest profile; the token stays in the session for the whole run
+    private static final ChainBuilder LOGIN = exec(http("auth: token")
+            .post("/api/auth/token")
+            .queryParam("username", "#{username}")
+            .check(jsonPath("$.access_token").saveAs("token"))
+            .check(jsonPath("$.user_id").ofLong().saveAs("userId")));
+
+    private static HttpRequestActionBuilder get(String name, String path) {
+        return http(name).get(path).header("Authorization", "Bearer #{token}");
+    }
+
+    private static HttpRequestActionBuilder post(String name, String path, String body) {
+        return http(name).post(path).header("Authorization", "Bearer #{token}").body(StringBody(body));
+    }
+
+    private final ScenarioBuilder agentDashboard = scenario("Agent dashboard")
+            .feed(accounts("agent", SEEDED_AGENTS))
+            .exec(LOGIN)
+            .during(DURING).on(
+                    exec(get("dashboard: my queue", "/tickets/cursor")
+                            .queryParam("assignedToId", "#{userId}")
+                            .queryParam("status", "IN_PROGRESS")
+                            .queryParam("size", 20))
+                    .exec(get("dashboard: stats", "/stats"))
+                    .exec(get("dashboard: unread count", "/api/notifications/unread/count"))
+                    .pause(Duration.ofSeconds(2), Duration.ofSeconds(5)));
+
+    private final ScenarioBuilder ticketDetail = scenario("Ticket detail")
+            .feed(accounts("user", SEEDED_USERS))
+            .exec(LOGIN)
+            .during(DURING).on(
+                    feed(TICKETS)
+                    .exec(get("detail: ticket", "/tickets/#{ticketId}"))
+                    .exec(get("detail: history", "/tickets/#{ticketId}/history"))
+                    .exec(get("detail: comments", "/api/tickets/#{ticketId}/comments"))
+                    .pause(Duration.ofSeconds(1), Duration.ofSeconds(3)));
+
+    private final ScenarioBuilder search = scenario("Search")
+            .feed(accounts("user", SEEDED_USERS))
+            .exec(LOGIN)
+            .during(DURING).on(
+                    feed(TERMS)
+                    .exec(get("search", "/tickets/search")
+                            .queryParam("query", "#{term}")
+                            .queryParam("limit", 20))
+                    .pause(Duration.ofSeconds(1), Duration.ofSeconds(3)));
+
+    private final ScenarioBuilder commentPosting = scenario("Comment posting")
+            .feed(accounts("agent", SEEDED_AGENTS))
+            .exec(LOGIN)
+            .during(DURING).on(
+                    feed(TICKETS)
+                    .exec(post("comment: post", "/api/comments",
+                            "{\"ticketId\": #{ticketId}, \"content\": \"Load test follow-up from #{username}\"}")
+                            .check(status().is(201)))
+                    .pause(Duration.ofSeconds(3), Duration.ofSeconds(8)));
+
+    private final ScenarioBuilder bulkTriage = scenario("Bulk triage")
+            .feed(accounts("agent", SEEDED_AGENTS))
+            .exec(LOGIN)
+            .during(DURING).on(
+                    feed(TRIAGE_BATCHES)
+                    .exec(post("triage: bulk assign", "/tickets/bulk/assign",
+                            "{\"ticketIds\": #{ticketIds}, \"newAssigneeId\": #{userId}}"))
+                    .exec(post("triage: bulk status", "/tickets/bulk/status",
+                            "{\"ticketIds\": #{ticketIds}, \"newStatus\": \"IN_PROGRESS\"}"))
+                    .pause(Duration.ofSeconds(10), Duration.ofSeconds(20)));
+
+    {
+        setUp(
+                agentDashboard.injectOpen(rampUsers(DASHBOARD_USERS).during(RAMP)),
+                ticketDetail.injectOpen(rampUsers(DETAIL_USERS).during(RAMP)),
+                search.injectOpen(rampUsers(SEARCH_USERS).during(RAMP)),
+                commentPosting.injectOpen(rampUsers(COMMENT_USERS).during(RAMP)),
+                bulkTriage.injectOpen(rampUsers(TRIAGE_USERS).during(RAMP)))
+                .protocols(httpProtocol)
+                .assertions(global().failedRequests().percent().lt(1.0));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ticketing.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills an empty database with a production-sized data set for the {@code loadtest} profile:
+ * users ({@code admin1..}, {@code agent1..}, {@code user1..}), categories, tickets spread over the
+ * last year with comments and history. Everything is generated server-side with
+ * {@code generate_series} in chunks of {@code chunk-size} tickets, so millions of rows take
+ * minutes rather than hours. Runs before the application reports ready, so the search index and
+ * statistics are built from the seeded data. Does nothing when tickets already exist.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final String INSERT_USERS =
+            "INSERT INTO users (username, first_name, last_name, email, password, role, department, active) " +
+            "SELECT ? || g, 'Load', 'Tester ' || g, ? || g || '@loadtest.local', '{noop}loadtest', ?, 'Support', true " +
+            "FROM generate_series(1, ?) g";
+
+    private static final String INSERT_CATEGORIES =
+            "INSERT INTO categories (name, description) " +
+            "SELECT 'Category ' || g, 'Load test category ' || g FROM generate_series(1, ?) g";
+
+    // Subjects and descriptions draw on a small vocabulary so searches hit realistic result set sizes
+    private static final String INSERT_TICKETS =
+            "WITH agents AS (SELECT array_agg(id ORDER BY id) AS ids FROM users WHERE role = 'AGENT'), " +
+            "requesters AS (SELECT array_agg(id ORDER BY id) AS ids FROM users WHERE role = 'USER'), " +
+            "cats AS (SELECT array_agg(id ORDER BY id) AS ids FROM categories), " +
+            "words AS (SELECT ARRAY['printer', 'network', 'email', 'vpn', 'laptop', 'password', 'monitor', " +
+            "'database', 'phone', 'badge', 'wifi', 'license'] AS w) " +
+            "INSERT INTO tickets (subject, description, status, priority, created_at, updated_at, " +
+            "resolved_at, closed_at, category_id, created_by_id, assigned_to_id) " +
+            "SELECT initcap(w[1 + g % 12]) || ' problem ' || g || ' in ' || w[1 + (g / 12) % 12], " +
+            "'The ' || w[1 + g % 12] || ' stopped working after the ' || w[1 + (g / 7) % 12] || ' update. Ticket ' || g || '.', " +
+            "(ARRAY['OPEN', 'IN_PROGRESS', 'RESOLVED', 'CLOSED'])[1 + g % 4], " +
+            "(ARRAY['LOW', 'MEDIUM', 'HIGH'])[1 + g % 3], " +
+            "t.created_at, t.created_at + INTERVAL '2 hours', " +
+            "CASE WHEN g % 4 >= 2 THEN t.created_at + INTERVAL '1 day' END, " +
+            "CASE WHEN g % 4 = 3 THEN t.created_at + INTERVAL '2 days' END, " +
+            "cats.ids[1 + g % cardinality(cats.ids)], " +
+            "requesters.ids[1 + g % cardinality(requesters.ids)], " +
+            "CASE WHEN g % 5 <> 0 THEN agents.ids[1 + g % cardinality(agents.ids)] END " +
+            "FROM generate_series(?::int, ?::int) g " +
+            "CROSS JOIN LATERAL (SELECT now() - (g % 365) * INTERVAL '1 day' - (g % 1440) * INTERVAL '1 minute' AS created_at) t " +
+            "CROSS JOIN agents CROSS JOIN requesters CROSS JOIN cats CROSS JOIN words";
+
+    private static final String INSERT_COMMENTS =
+            "INSERT INTO comments (content, created_at, is_internal, ticket_id, user_id) " +
+            "SELECT 'Update ' || s || ' on ticket ' || t.id || ': still investigating.', " +
+            "t.created_at + s * INTERVAL '30 minutes', s % 3 = 0, t.id, COALESCE(t.assigned_to_id, t.created_by_id) " +
+            "FROM tickets t CROSS JOIN generate_series(1, ?) s WHERE t.id > ?";
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO ticket_history (id, field, old_value, new_value, created_at, ticket_id, user_id) " +
+            "SELECT nextval('ticket_history_seq'), 'status', 'OPEN', 'IN_PROGRESS', " +
+            "t.created_at + s * INTERVAL '1 hour', t.id, COALESCE(t.assigned_to_id, t.created_by_id) " +
+            "FROM tickets t CROSS JOIN generate_series(1, ?) s WHERE t.id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int admins;
+    private final int agents;
+    private final int users;
+    private final int categories;
+    private final long tickets;
+    private final int commentsPerTicket;
+    private final int historyPerTicket;
+    private final int chunkSize;
+
+    @Autowired
+    public LoadTestDataSeeder(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.loadtest.seed.admins:5}") int admins,
+            @Value("${app.loadtest.seed.agents:200}") int agents,
+            @Value("${app.loadtest.seed.users:5000}") int users,
+            @Value("${app.loadtest.seed.categories:20}") int categories,
+            @Value("${app.loadtest.seed.tickets:2000000}") long tickets,
+            @Value("${app.loadtest.seed.comments-per-ticket:3}") int commentsPerTicket,
+            @Value("${app.loadtest.seed.history-per-ticket:2}") int historyPerTicket,
+            @Value("${app.loadtest.seed.chunk-size:100000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.admins = admins;
+        this.agents = agents;
+        this.users = users;
+        this.categories = categories;
+        this.tickets = tickets;
+        this.commentsPerTicket = commentsPerTicket;
+        this.historyPerTicket = historyPerTicket;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM (SELECT 1 FROM tickets LIMIT 1) t", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Load-test database already seeded, skipping");
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        jdbcTemplate.update(INSERT_USERS, "admin", "admin", "ADMIN", admins);
+        jdbcTemplate.update(INSERT_USERS, "agent", "agent", "AGENT", agents);
+        jdbcTemplate.update(INSERT_USERS, "user", "user", "USER", users);
+        jdbcTemplate.update(INSERT_CATEGORIES, categories);
+
+        // History is partitioned by month; seeded rows go back a year
+        jdbcTemplate.execute("SELECT ensure_monthly_partitions('ticket_history', (now() - INTERVAL '13 months')::date, 3)");
+
+        for (long from = 1; from <= tickets; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, tickets);
+            // Comments and history for the chunk just inserted: every ticket above the previous maximum
+            Long previousMaxId = jdbcTemplate.queryForObject("SELECT COALESCE(max(id), 0) FROM tickets", Long.class);
+            jdbcTemplate.update(INSERT_TICKETS, from, to);
+            jdbcTemplate.update(INSERT_COMMENTS, commentsPerTicket, previousMaxId);
+            jdbcTemplate.update(INSERT_HISTORY, historyPerTicket, previousMaxId);
+            log.info("Seeded {} of {} tickets", to, tickets);
+        }
+
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded load-test database in {} s", (System.currentTimeMillis() - start) / 1000);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ticketing.api.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.util.UUID;
+
+/**
+ * Stand-in for Keycloak in the {@code loadtest} profile: tokens are signed with an RSA key
+ * generated at startup and validated against the same key, so no identity provider is needed.
+ * {@code LocalTokenController} issues the tokens. Never enable this profile in production.
+ */
+@Configuration
+@Profile("loadtest")
+public class LocalJwtIssuerConfig {
+
+    private final RSAKey signingKey;
+
+    public LocalJwtIssuerConfig() throws JOSEException {
+        this.signingKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder() throws JOSEException {
+        return NimbusJwtDecoder.withPublicKey(signingKey.toRSAPublicKey()).build();
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder() {
+        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(signingKey)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ticketing.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes guard for replica routing: once a user commits a read-write transaction,
+ * their read-only transactions stay on the primary for the configured window, which should
+ * exceed the replica's normal replication lag. Requests without an authenticated user
+ * (scheduled jobs) are not pinned.
+ */
+public class ReplicaLagGuard {
+
+    private static final Object REGISTERED = new Object();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaLagGuard(Duration pinDuration, long maxUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    public boolean isPinnedToPrimary() {
+        String username = currentUsername();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    // Called for each primary connection in a read-write transaction; registers once per transaction
+    public void recordWriteOnCommit() {
+        String username = currentUsername();
+        if (username == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REGISTERED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REGISTERED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(username, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REGISTERED);
+            }
+        });
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
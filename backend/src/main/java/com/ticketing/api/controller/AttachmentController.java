@@ -0,0 +1,254 @@
+package com.ticketing.api.controller;
+
+import com.ticketing.api.dto.AttachmentDTO;
+import com.ticketing.api.dto.AttachmentUploadDTO;
+import com.ticketing.api.service.AttachmentService;
+import com.ticketing.api.service.AttachmentUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/tickets/{ticketId}/attachments")
+public class AttachmentController {
+
+    // Tomcat's NIO connector writes the file to the socket itself (sendfile) when these are set
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Resumable upload headers, named as in the tus protocol
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+
+    private final AttachmentService attachmentService;
+    private final AttachmentUploadService uploadService;
+
+    @Autowired
+    public AttachmentController(AttachmentService attachmentService, AttachmentUploadService uploadService) {
+        this.attachmentService = attachmentService;
+        this.uploadService = uploadService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AttachmentDTO>> getAttachments(@PathVariable Long ticketId) {
+        List<AttachmentDTO> attachments = attachmentService.getAttachmentsByTicketId(ticketId);
+        attachments.forEach(this::setDownloadUrl);
+        return ResponseEntity.ok(attachments);
+    }
+
+    // The request body is the file itself, read as a stream; its type is the request's Content-Type
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT') or @ticketSecurity.isTicketCreator(#ticketId, authentication)")
+    public ResponseEntity<AttachmentDTO> uploadAttachment(
+            @PathVariable Long ticketId,
+            @RequestParam String filename,
+            HttpServletRequest request) throws IOException {
+        AttachmentDTO attachment = attachmentService.upload(
+                ticketId, filename, request.getContentType(), request.getContentLengthLong(), request.getInputStream());
+        setDownloadUrl(attachment);
+        return new ResponseEntity<>(attachment, HttpStatus.CREATED);
+    }
+
+    /**
+     * Serves the content, or the single byte range asked for with {@code Range} (206). A range
+     * that starts past the end gets 416; {@code If-Range} with an outdated ETag or date, and
+     * requests for several ranges at once, get the whole file. The ETag is the content hash.
+     */
+    @GetMapping("/{attachmentId}/content")
+    public void downloadAttachment(
+            @PathVariable Long ticketId,
+            @PathVariable Long attachmentId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        AttachmentService.StoredAttachment stored = attachmentService.getStoredAttachment(ticketId, attachmentId);
+        AttachmentDTO attachment = stored.attachment();
+        Path path = stored.path();
+        long length = Files.size(path);
+        String etag = attachment.getContentHash() != null ? "\"" + attachment.getContentHash() + "\"" : null;
+        long lastModified = attachment.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setContentType(attachment.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getOriginalFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        long start = 0;
+        long end = length;
+        List<HttpRange> ranges = range != null && rangeStillValid(ifRange, etag, lastModified)
+                ? parseRanges(range) : List.of();
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            if (start >= length) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            end = ranges.get(0).getRangeEnd(length) + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+        send(path, start, end, request, response);
+    }
+
+    /**
+     * Starts a resumable upload of a file of {@code size} bytes. Chunks then go to the returned
+     * uploadUrl with PATCH and an {@code Upload-Offset} header; HEAD or GET on it tells where the
+     * upload stands after an interruption.
+     */
+    @PostMapping("/uploads")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT') or @ticketSecurity.isTicketCreator(#ticketId, authentication)")
+    public ResponseEntity<AttachmentUploadDTO> createUpload(
+            @PathVariable Long ticketId,
+            @RequestParam String filename,
+            @RequestParam long size,
+            @RequestParam(required = false) String contentType,
+            @RequestParam(required = false) String sha256) {
+        AttachmentUploadDTO upload = uploadService.createUpload(ticketId, filename, contentType, size, sha256);
+        setUploadUrl(upload);
+        return ResponseEntity.created(URI.create(upload.getUploadUrl()))
+                .header(UPLOAD_OFFSET, "0")
+                .header(UPLOAD_LENGTH, String.valueOf(upload.getSize()))
+                .body(upload);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<AttachmentUploadDTO> getUpload(@PathVariable Long ticketId, @PathVariable String uploadId) {
+        AttachmentUploadDTO upload = uploadService.getUpload(ticketId, uploadId);
+        setUploadUrl(upload);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.getSize()))
+                .body(upload);
+    }
+
+    // 204 with the new offset, or 201 with the attachment once the last chunk is in
+    @PatchMapping("/uploads/{uploadId}")
+    public ResponseEntity<AttachmentDTO> appendUploadChunk(
+            @PathVariable Long ticketId,
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+            HttpServletRequest request) throws IOException {
+        AttachmentUploadService.ChunkResult result = uploadService.appendChunk(
+                ticketId, uploadId, offset, checksum, request.getInputStream());
+        if (result.attachment() == null) {
+            return ResponseEntity.noContent()
+                    .header(UPLOAD_OFFSET, String.valueOf(result.offset()))
+                    .build();
+        }
+        AttachmentDTO attachment = result.attachment();
+        setDownloadUrl(attachment);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(UPLOAD_OFFSET, String.valueOf(result.offset()))
+                .body(attachment);
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> cancelUpload(@PathVariable Long ticketId, @PathVariable String uploadId) {
+        uploadService.cancelUpload(ticketId, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // By sendfile where the connector supports it, otherwise with FileChannel.transferTo; end is exclusive
+    private static void send(Path path, long start, long end, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+             WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            long position = start;
+            while (position < end) {
+                long transferred = file.transferTo(position, end - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    // If-Range names the version the client already has part of; a weak ETag never matches
+    private static boolean rangeStillValid(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String validator = ifRange.trim();
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            return validator.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+                    == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // A malformed Range header is ignored, as RFC 9110 allows
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private void setUploadUrl(AttachmentUploadDTO upload) {
+        upload.setUploadUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/tickets/{ticketId}/attachments/uploads/{uploadId}")
+                .buildAndExpand(upload.getTicketId(), upload.getUploadId())
+                .toUriString());
+    }
+
+    // Not for attachments of archived tickets, whose content is gone
+    private void setDownloadUrl(AttachmentDTO attachment) {
+        if (attachment.getFilePath() == null) {
+            return;
+        }
+        attachment.setDownloadUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/tickets/{ticketId}/attachments/{id}/content")
+                .buildAndExpand(attachment.getTicketId(), attachment.getId())
+                .toUriString());
+    }
+}
@@ -2,7 +2,9 @@ package com.ticketing.api.controller;
 
 import com.ticketing.api.dto.CategoryDTO;
 import com.ticketing.api.service.CategoryService;
+import com.ticketing.api.service.ResourceRevisions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,25 +18,33 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ResourceRevisions revisions;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ResourceRevisions revisions) {
         this.categoryService = categoryService;
+        this.revisions = revisions;
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, revisions.categoryListETag(), categoryService::getAllCategories);
     }
 
     @GetMapping("/with-stats")
-    public ResponseEntity<List<CategoryDTO>> getAllCategoriesWithTicketCount() {
-        return ResponseEntity.ok(categoryService.getAllCategoriesWithTicketCount());
+    public ResponseEntity<List<CategoryDTO>> getAllCategoriesWithTicketCount(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, revisions.categoryCountsETag(),
+                categoryService::getAllCategoriesWithTicketCount);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDTO> getCategoryById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, revisions.categoryCountsETag(),
+                () -> categoryService.getCategoryById(id));
     }
 
     @PostMapping
@@ -0,0 +1,58 @@
+package com.ticketing.api.controller;
+
+import com.ticketing.api.exception.ResourceNotFoundException;
+import com.ticketing.api.security.PrincipalCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues access tokens for existing users without a password, shaped like Keycloak's
+ * ({@code preferred_username}, {@code realm_access.roles}). Only registered in the
+ * {@code loadtest} profile; see {@code LocalJwtIssuerConfig}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LocalTokenController {
+
+    private final JwtEncoder jwtEncoder;
+    private final PrincipalCache principalCache;
+
+    @Value("${app.loadtest.token-ttl-seconds:3600}")
+    private long tokenTtlSeconds;
+
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> issueToken(@RequestParam String username) {
+        PrincipalCache.CachedPrincipal principal = principalCache.resolve(username)
+                .filter(PrincipalCache.CachedPrincipal::active)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("ticketing-loadtest")
+                .subject(principal.id().toString())
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(tokenTtlSeconds))
+                .claim("preferred_username", principal.username())
+                .claim("realm_access", Map.of("roles", List.of(principal.role().name())))
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        return ResponseEntity.ok(Map.of(
+                "access_token", token,
+                "token_type", "Bearer",
+                "expires_in", tokenTtlSeconds,
+                "user_id", principal.id()));
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -48,6 +50,12 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
     
+    // Pushes new notifications and unread-count changes; replaces polling /unread/count
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications() {
+        return notificationService.subscribeCurrentUser();
+    }
+    
     @PutMapping("/{id}/read")
     public ResponseEntity<NotificationDTO> markNotificationAsRead(@PathVariable Long id) {
         NotificationDTO notification = notificationService.markNotificationAsRead(id);
@@ -1,14 +1,18 @@
 package com.ticketing.api.controller;
 
+import com.ticketing.api.dto.LatencyPercentilesDTO;
 import com.ticketing.api.dto.StatsDTO;
+import com.ticketing.api.service.ResourceRevisions;
 import com.ticketing.api.service.StatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,15 +21,19 @@ import java.util.Map;
 public class StatsController {
 
     private final StatsService statsService;
+    private final ResourceRevisions revisions;
 
     @Autowired
-    public StatsController(StatsService statsService) {
+    public StatsController(StatsService statsService, ResourceRevisions revisions) {
         this.statsService = statsService;
+        this.revisions = revisions;
     }
 
     @GetMapping
-    public ResponseEntity<StatsDTO> getOverallStats() {
-        return ResponseEntity.ok(statsService.getOverallStats());
+    public ResponseEntity<StatsDTO> getOverallStats(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, revisions.statsETag(statsService.getRevision()),
+                statsService::getOverallStats);
     }
 
     @GetMapping("/by-date-range")
@@ -70,4 +78,16 @@ public class StatsController {
     public ResponseEntity<Map<String, Double>> getAverageResolutionTimes() {
         return ResponseEntity.ok(statsService.getAverageResolutionTimes());
     }
+
+    @GetMapping("/response-times/percentiles")
+    public ResponseEntity<List<LatencyPercentilesDTO>> getResponseTimePercentiles(
+            @RequestParam(defaultValue = "overall") String groupBy) {
+        return ResponseEntity.ok(statsService.getResponseTimePercentiles(groupBy));
+    }
+
+    @GetMapping("/resolution-times/percentiles")
+    public ResponseEntity<List<LatencyPercentilesDTO>> getResolutionTimePercentiles(
+            @RequestParam(defaultValue = "overall") String groupBy) {
+        return ResponseEntity.ok(statsService.getResolutionTimePercentiles(groupBy));
+    }
 }
\ No newline at end of file
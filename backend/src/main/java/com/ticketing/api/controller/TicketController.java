@@ -1,35 +1,68 @@
 package com.ticketing.api.controller;
 
+import com.ticketing.api.dto.BulkTicketRequestDTO;
+import com.ticketing.api.dto.BulkTicketResultDTO;
+import com.ticketing.api.dto.TicketCursorPageDTO;
 import com.ticketing.api.dto.TicketDTO;
 import com.ticketing.api.dto.TicketHistoryDTO;
+import com.ticketing.api.dto.TicketImportResultDTO;
 import com.ticketing.api.enums.Priority;
 import com.ticketing.api.enums.Status;
+import com.ticketing.api.enums.TicketFileFormat;
+import com.ticketing.api.service.TicketBulkService;
+import com.ticketing.api.service.TicketExportService;
 import com.ticketing.api.service.TicketHistoryService;
+import com.ticketing.api.service.TicketImportService;
+import com.ticketing.api.service.ResourceRevisions;
 import com.ticketing.api.service.TicketService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/tickets")
 public class TicketController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final TicketService ticketService;
     private final TicketHistoryService historyService;
+    private final TicketExportService exportService;
+    private final TicketImportService importService;
+    private final TicketBulkService bulkService;
+    private final ResourceRevisions revisions;
 
     @Autowired
-    public TicketController(TicketService ticketService, TicketHistoryService historyService) {
+    public TicketController(
+            TicketService ticketService,
+            TicketHistoryService historyService,
+            TicketExportService exportService,
+            TicketImportService importService,
+            TicketBulkService bulkService,
+            ResourceRevisions revisions) {
         this.ticketService = ticketService;
         this.historyService = historyService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.bulkService = bulkService;
+        this.revisions = revisions;
     }
 
     @GetMapping
@@ -38,11 +71,11 @@ public class TicketController {
             @RequestParam(required = false) Priority priority,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long createdById,
-            @RequestParam(required = false) Long assignedToId) {
+            @RequestParam(required = false) Long assignedToId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        List<TicketDTO> tickets = ticketService.getTicketsWithFilters(
-                status, priority, categoryId, createdById, assignedToId);
-        return ResponseEntity.ok(tickets);
+        return ConditionalGet.respond(ifNoneMatch, revisions.ticketListETag(), () ->
+                ticketService.getTicketsWithFilters(status, priority, categoryId, createdById, assignedToId));
     }
 
     @GetMapping("/paged")
@@ -52,21 +85,93 @@ public class TicketController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long createdById,
             @RequestParam(required = false) Long assignedToId,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        return ConditionalGet.respond(ifNoneMatch, revisions.ticketListETag(), () ->
+                ticketService.getTicketsWithFiltersPaginated(
+                        status, priority, categoryId, createdById, assignedToId, pageable));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<TicketCursorPageDTO> getTicketsByCursor(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long createdById,
+            @RequestParam(required = false) Long assignedToId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean includeTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return ConditionalGet.respond(ifNoneMatch, revisions.ticketListETag(), () ->
+                ticketService.getTicketsWithFiltersCursor(
+                        status, priority, categoryId, createdById, assignedToId, cursor, pageSize, includeTotal));
+    }
+
+    // Streams every matching ticket; memory use does not depend on the number of rows
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ResponseEntity<StreamingResponseBody> exportTickets(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long createdById,
+            @RequestParam(required = false) Long assignedToId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(defaultValue = "CSV") TicketFileFormat format) {
+        
+        TicketExportService.ExportFilter filter = new TicketExportService.ExportFilter(
+                status, priority, categoryId, createdById, assignedToId,
+                createdFrom, createdTo, updatedFrom, updatedTo);
+        StreamingResponseBody body = out -> exportService.export(filter, format, out);
         
-        Page<TicketDTO> tickets = ticketService.getTicketsWithFiltersPaginated(
-                status, priority, categoryId, createdById, assignedToId, pageable);
-        return ResponseEntity.ok(tickets);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tickets." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    // The request body is the raw CSV or NDJSON file, read as a stream
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TicketImportResultDTO> importTickets(
+            @RequestParam(defaultValue = "CSV") TicketFileFormat format,
+            InputStream body) {
+        return ResponseEntity.ok(importService.importTickets(body, format));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<TicketDTO>> searchTickets(@RequestParam String query) {
-        return ResponseEntity.ok(ticketService.searchTickets(query));
+    public ResponseEntity<List<TicketDTO>> searchTickets(
+            @RequestParam String query,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(ticketService.searchTickets(query, status, priority, categoryId, maxResults));
     }
 
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        ticketService.rebuildSearchIndex();
+        return ResponseEntity.accepted().build();
+    }
+
+    // expand=comments,history,attachments embeds those in the ticket, loaded in parallel
     @GetMapping("/{id}")
-    public ResponseEntity<TicketDTO> getTicketById(@PathVariable Long id) {
-        return ResponseEntity.ok(ticketService.getTicketById(id));
+    public ResponseEntity<TicketDTO> getTicketById(
+            @PathVariable Long id,
+            @RequestParam(required = false) Set<String> expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, revisions.ticketETag(id), () ->
+                ticketService.getTicketById(id, expand != null ? expand : Set.of()));
     }
 
     @GetMapping("/{id}/history")
@@ -132,4 +237,22 @@ public class TicketController {
         
         return ResponseEntity.ok(ticketService.assignTicket(id, assigneeId, userId));
     }
+
+    @PostMapping("/bulk/assign")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ResponseEntity<BulkTicketResultDTO> bulkAssign(@RequestBody BulkTicketRequestDTO request) {
+        return ResponseEntity.ok(bulkService.assign(request));
+    }
+
+    @PostMapping("/bulk/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ResponseEntity<BulkTicketResultDTO> bulkChangeStatus(@RequestBody BulkTicketRequestDTO request) {
+        return ResponseEntity.ok(bulkService.changeStatus(request));
+    }
+
+    @PostMapping("/bulk/category")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ResponseEntity<BulkTicketResultDTO> bulkRecategorize(@RequestBody BulkTicketRequestDTO request) {
+        return ResponseEntity.ok(bulkService.recategorize(request));
+    }
 }
\ No newline at end of file
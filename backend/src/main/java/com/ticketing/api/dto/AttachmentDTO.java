@@ -21,6 +21,8 @@ public class AttachmentDTO {
     private String contentType;
     private Long fileSize;
     private String filePath;
+    // SHA-256 of the content, hex; lets clients verify a download
+    private String contentHash;
     private String downloadUrl;
     private LocalDateTime uploadedAt;
     
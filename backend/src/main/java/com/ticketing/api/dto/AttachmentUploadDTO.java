@@ -0,0 +1,29 @@
+package com.ticketing.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// State of a resumable attachment upload; chunks are sent to uploadUrl starting at offset
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttachmentUploadDTO {
+    
+    private String uploadId;
+    private Long ticketId;
+    private String filename;
+    private String contentType;
+    private long size;
+    private long offset;
+    // Expected SHA-256 of the whole file, if the client declared one
+    private String contentHash;
+    private LocalDateTime expiresAt;
+    private String uploadUrl;
+}
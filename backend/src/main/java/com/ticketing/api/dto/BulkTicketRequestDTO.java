@@ -0,0 +1,35 @@
+package com.ticketing.api.dto;
+
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects the tickets for a bulk operation, either by explicit ids or by the same filters
+ * as the ticket list (ids win when both are given), plus the value to apply.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTicketRequestDTO {
+
+    private List<Long> ticketIds;
+
+    // Filter selection, used when ticketIds is empty
+    private Status status;
+    private Priority priority;
+    private Long categoryId;
+    private Long createdById;
+    private Long assignedToId;
+
+    // Target value; which one applies depends on the endpoint
+    private Long newAssigneeId;
+    private Status newStatus;
+    private Long newCategoryId;
+}
@@ -0,0 +1,40 @@
+package com.ticketing.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTicketResultDTO {
+
+    public enum Outcome {
+        UPDATED,
+        // Already had the requested value
+        UNCHANGED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private int requested;
+    private int updated;
+    private int unchanged;
+    private int notFound;
+    private int failed;
+    private long durationMs;
+    private List<TicketOutcome> outcomes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TicketOutcome {
+        private Long ticketId;
+        private Outcome outcome;
+        private String message;
+    }
+}
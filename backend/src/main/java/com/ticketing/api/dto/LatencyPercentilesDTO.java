@@ -0,0 +1,27 @@
+package com.ticketing.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LatencyPercentilesDTO {
+    
+    // overall, category, priority or agent
+    private String dimension;
+    private String key;
+    private String name;
+    
+    private Long sampleCount;
+    
+    // Latencies in hours
+    private Double p50;
+    private Double p90;
+    private Double p99;
+}
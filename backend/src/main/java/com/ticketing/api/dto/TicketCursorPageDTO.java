@@ -0,0 +1,27 @@
+package com.ticketing.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketCursorPageDTO {
+
+    private List<TicketDTO> content;
+    private int size;
+    private boolean hasNext;
+
+    // Opaque token to pass back as "cursor" to fetch the next page
+    private String nextCursor;
+
+    // Only populated when the caller asks for it (includeTotal=true)
+    private Long totalElements;
+}
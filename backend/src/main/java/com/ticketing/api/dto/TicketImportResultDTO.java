@@ -0,0 +1,32 @@
+package com.ticketing.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketImportResultDTO {
+
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long durationMs;
+
+    // Capped at app.import.max-reported-errors; "failed" has the full count
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based line of the record in the uploaded file
+        private long line;
+        private String message;
+    }
+}
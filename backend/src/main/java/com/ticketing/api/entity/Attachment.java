@@ -36,6 +36,10 @@ public class Attachment {
     @Column(name = "file_path", nullable = false)
     private String filePath;
     
+    // SHA-256 of the content; the file is shared with every attachment that has the same hash
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt = LocalDateTime.now();
     
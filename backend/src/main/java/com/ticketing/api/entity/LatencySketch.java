@@ -0,0 +1,29 @@
+package com.ticketing.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Serialized t-digest for one latency metric/dimension, e.g. "resolution|priority|HIGH"
+@Entity
+@Table(name = "latency_sketches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencySketch {
+    
+    @Id
+    @Column(name = "sketch_key", length = 100)
+    private String key;
+    
+    @Column(nullable = false, length = 1048576)
+    private byte[] data;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
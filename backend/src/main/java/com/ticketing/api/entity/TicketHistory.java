@@ -17,8 +17,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class TicketHistory {
     
+    // Sequence-allocated (pooled-lo, blocks of 50) so history rows can be inserted in JDBC batches;
+    // TicketHistoryWriter allocates from the same sequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_history_seq")
+    @SequenceGenerator(name = "ticket_history_seq", sequenceName = "ticket_history_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
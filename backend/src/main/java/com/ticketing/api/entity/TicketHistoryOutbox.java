@@ -0,0 +1,41 @@
+package com.ticketing.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Durable staging table for history rows in "outbox" write mode. Rows carry their final
+// ticket_history id and are moved into ticket_history by TicketHistoryWriter.
+@Entity
+@Table(name = "ticket_history_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketHistoryOutbox {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private String field;
+    
+    @Column(name = "old_value")
+    private String oldValue;
+    
+    @Column(name = "new_value")
+    private String newValue;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.ticketing.api.exception;
+
+/**
+ * An upload chunk whose content does not match its {@code Upload-Checksum}. Answered with tus'
+ * 460 Checksum Mismatch, which has no {@link org.springframework.http.HttpStatus} constant, so the
+ * status is set in {@link GlobalExceptionHandler}.
+ */
+public class ChecksumMismatchException extends BadRequestException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int STATUS = 460;
+    
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
@@ -24,6 +24,9 @@ public abstract class CommentMapper {
     
     @Mapping(target = "ticketId", source = "ticket.id")
     @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "userName", expression = "java(comment.getUser() == null ? null : comment.getUser().getFirstName() + \" \" + comment.getUser().getLastName())")
+    @Mapping(target = "userRole", source = "user.role")
+    @Mapping(target = "userAvatarUrl", source = "user.avatarUrl")
     public abstract CommentDTO toDTO(Comment comment);
     
     @Mapping(target = "ticket", source = "ticketId", qualifiedByName = "ticketIdToTicket")
@@ -0,0 +1,20 @@
+package com.ticketing.api.repository;
+
+import com.ticketing.api.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+    
+    @Query("SELECT a FROM Attachment a JOIN FETCH a.uploadedBy WHERE a.ticket.id = :ticketId ORDER BY a.uploadedAt ASC")
+    List<Attachment> findByTicketIdWithUploader(@Param("ticketId") Long ticketId);
+    
+    @Query("SELECT a FROM Attachment a JOIN FETCH a.uploadedBy WHERE a.id = :id AND a.ticket.id = :ticketId")
+    Optional<Attachment> findByIdAndTicketIdWithUploader(@Param("id") Long id, @Param("ticketId") Long ticketId);
+}
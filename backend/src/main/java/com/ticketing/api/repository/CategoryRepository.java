@@ -1,8 +1,10 @@
 package com.ticketing.api.repository;
 
 import com.ticketing.api.entity.Category;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,9 +16,14 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     Optional<Category> findByName(String name);
     
+    // Served from the query cache; any write to categories invalidates it
     @Query("SELECT c FROM Category c ORDER BY c.name")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Category> findAllOrderByName();
     
+    @Query("SELECT c.id, c.name FROM Category c")
+    List<Object[]> findAllIdsAndNames();
+    
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.category.id = :categoryId")
     Long countTicketsByCategoryId(@Param("categoryId") Long categoryId);
     
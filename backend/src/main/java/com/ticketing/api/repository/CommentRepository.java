@@ -5,8 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,16 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     
     List<Comment> findByUserId(Long userId);
     
+    // (ticketId, content) pairs for indexing, without loading Comment entities
+    @Query("SELECT c.ticket.id, c.content FROM Comment c WHERE c.ticket.id IN :ticketIds")
+    List<Object[]> findContentByTicketIds(@Param("ticketIds") Collection<Long> ticketIds);
+    
+    boolean existsByTicketIdAndUserIdNot(Long ticketId, Long userId);
+    
+    // Authors fetched in the same query for the denormalized user fields
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.ticket.id = :ticketId ORDER BY c.createdAt ASC")
+    List<Comment> findByTicketIdOrderByCreatedAtAsc(@Param("ticketId") Long ticketId);
+    
     @Query("SELECT c FROM Comment c WHERE c.ticket.id = :ticketId ORDER BY c.createdAt DESC")
     List<Comment> findByTicketIdOrderByCreatedAtDesc(Long ticketId);
     
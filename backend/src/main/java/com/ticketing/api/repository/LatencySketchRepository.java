@@ -0,0 +1,20 @@
+package com.ticketing.api.repository;
+
+import com.ticketing.api.entity.LatencySketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LatencySketchRepository extends JpaRepository<LatencySketch, String> {
+    
+    // Key order keeps instances merging into the same sketches from deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM LatencySketch s WHERE s.key IN :keys ORDER BY s.key")
+    List<LatencySketch> findAllForUpdate(Collection<String> keys);
+}
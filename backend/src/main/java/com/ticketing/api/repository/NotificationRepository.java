@@ -1,6 +1,7 @@
 package com.ticketing.api.repository;
 
 import com.ticketing.api.entity.Notification;
+import com.ticketing.api.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,7 +9,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -21,10 +24,41 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     
     Page<Notification> findByUserIdAndReadFalse(Long userId, Pageable pageable);
     
-    @Query("SELECT n FROM Notification n WHERE n.userId = :userId ORDER BY n.createdAt DESC")
+    List<Notification> findByUserOrderByCreatedAtDesc(User user);
+    
+    Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    
+    List<Notification> findByUserAndReadOrderByCreatedAtDesc(User user, boolean read);
+    
+    long countByUserAndRead(User user, boolean read);
+    
+    // Used by NotificationService. Bounded by created_at so that only the monthly partitions in
+    // [from, to) are scanned; served by idx_notifications_user_created and the unread partial index
+    @Query("SELECT n FROM Notification n WHERE n.user = :user " +
+           "AND n.createdAt >= :from AND n.createdAt < :to ORDER BY n.createdAt DESC")
+    List<Notification> findByUserCreatedBetween(User user, LocalDateTime from, LocalDateTime to);
+    
+    @Query(value = "SELECT n FROM Notification n WHERE n.user = :user " +
+           "AND n.createdAt >= :from AND n.createdAt < :to ORDER BY n.createdAt DESC",
+           countQuery = "SELECT COUNT(n) FROM Notification n WHERE n.user = :user " +
+           "AND n.createdAt >= :from AND n.createdAt < :to")
+    Page<Notification> findByUserCreatedBetween(User user, LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.read = :read " +
+           "AND n.createdAt >= :from AND n.createdAt < :to ORDER BY n.createdAt DESC")
+    List<Notification> findByUserAndReadCreatedBetween(User user, boolean read, LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user = :user AND n.read = :read " +
+           "AND n.createdAt >= :from AND n.createdAt < :to")
+    long countByUserAndReadCreatedBetween(User user, boolean read, LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT n FROM Notification n WHERE n.id = :id AND n.createdAt >= :from AND n.createdAt < :to")
+    Optional<Notification> findByIdCreatedBetween(Long id, LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     
-    @Query("SELECT COUNT(n) FROM Notification n WHERE n.userId = :userId AND n.read = false")
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false")
     Long countUnreadByUserId(Long userId);
     
     @Modifying
@@ -32,10 +66,20 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     void markAsRead(Long id);
     
     @Modifying
-    @Query("UPDATE Notification n SET n.read = true WHERE n.userId = :userId")
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id = :id " +
+           "AND n.createdAt >= :from AND n.createdAt < :to")
+    void markAsRead(Long id, LocalDateTime from, LocalDateTime to);
+    
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId")
     void markAllAsRead(Long userId);
     
     @Modifying
-    @Query("UPDATE Notification n SET n.read = true WHERE n.userId = :userId AND n.ticketId = :ticketId")
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false " +
+           "AND n.createdAt >= :from AND n.createdAt < :to")
+    void markAllAsRead(Long userId, LocalDateTime from, LocalDateTime to);
+    
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.ticket.id = :ticketId")
     void markTicketNotificationsAsRead(Long userId, Long ticketId);
 }
\ No newline at end of file
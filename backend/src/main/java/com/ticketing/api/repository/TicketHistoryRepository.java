@@ -6,12 +6,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TicketHistoryRepository extends JpaRepository<TicketHistory, Long> {
     
-    List<TicketHistory> findByTicketIdOrderByCreatedAtDesc(Long ticketId);
+    @Query("SELECT th FROM TicketHistory th JOIN FETCH th.user WHERE th.ticket.id = :ticketId ORDER BY th.createdAt DESC")
+    List<TicketHistory> findByTicketIdOrderByCreatedAtDesc(@Param("ticketId") Long ticketId);
+    
+    // The lower bound lets PostgreSQL skip partitions older than the ticket; users come in the same query
+    @Query("SELECT th FROM TicketHistory th JOIN FETCH th.user WHERE th.ticket.id = :ticketId AND th.createdAt >= :since ORDER BY th.createdAt DESC")
+    List<TicketHistory> findByTicketIdSince(@Param("ticketId") Long ticketId, @Param("since") LocalDateTime since);
     
     @Query("SELECT th FROM TicketHistory th WHERE th.ticket.id = :ticketId AND th.field = :field ORDER BY th.createdAt DESC")
     List<TicketHistory> findByTicketIdAndFieldOrderByCreatedAtDesc(@Param("ticketId") Long ticketId, @Param("field") String field);
@@ -3,6 +3,7 @@ package com.ticketing.api.repository;
 import com.ticketing.api.entity.Ticket;
 import com.ticketing.api.enums.Priority;
 import com.ticketing.api.enums.Status;
+import com.ticketing.api.repository.projection.TicketRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,18 +31,48 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
     
     List<Ticket> findByAssignedToId(Long userId);
     
+    // Ids only, for selecting the targets of a bulk operation
+    @Query("SELECT t.id FROM Ticket t WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:categoryId IS NULL OR t.category.id = :categoryId) AND " +
+           "(:createdById IS NULL OR t.createdBy.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR t.assignedTo.id = :assignedToId) " +
+           "ORDER BY t.id")
+    List<Long> findIdsWithFilters(
+            @Param("status") Status status,
+            @Param("priority") Priority priority,
+            @Param("categoryId") Long categoryId,
+            @Param("createdById") Long createdById,
+            @Param("assignedToId") Long assignedToId,
+            Pageable pageable);
+    
+    @Query("SELECT t.createdAt FROM Ticket t WHERE t.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+    
+    // Ownership checks for authorization; both hit the primary key index
+    boolean existsByIdAndCreatedById(Long id, Long userId);
+    
+    boolean existsByIdAndAssignedToId(Long id, Long userId);
+    
     // Advanced queries with multiple conditions
     List<Ticket> findByStatusAndPriority(Status status, Priority priority);
     
     List<Ticket> findByStatusInAndPriorityIn(List<Status> statuses, List<Priority> priorities);
     
-    @Query("SELECT t FROM Ticket t WHERE " +
+    // List queries project straight into TicketRow so each list is a single statement
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE " +
            "(:status IS NULL OR t.status = :status) AND " +
            "(:priority IS NULL OR t.priority = :priority) AND " +
-           "(:categoryId IS NULL OR t.category.id = :categoryId) AND " +
-           "(:createdById IS NULL OR t.createdBy.id = :createdById) AND " +
-           "(:assignedToId IS NULL OR t.assignedTo.id = :assignedToId)")
-    List<Ticket> findTicketsWithFilters(
+           "(:categoryId IS NULL OR c.id = :categoryId) AND " +
+           "(:createdById IS NULL OR cb.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR a.id = :assignedToId)")
+    List<TicketRow> findTicketsWithFilters(
             @Param("status") Status status,
             @Param("priority") Priority priority,
             @Param("categoryId") Long categoryId,
@@ -48,13 +80,24 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
             @Param("assignedToId") Long assignedToId);
     
     // Paginated queries
-    @Query("SELECT t FROM Ticket t WHERE " +
+    @Query(value = "SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:categoryId IS NULL OR c.id = :categoryId) AND " +
+           "(:createdById IS NULL OR cb.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR a.id = :assignedToId)",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE " +
            "(:status IS NULL OR t.status = :status) AND " +
            "(:priority IS NULL OR t.priority = :priority) AND " +
            "(:categoryId IS NULL OR t.category.id = :categoryId) AND " +
            "(:createdById IS NULL OR t.createdBy.id = :createdById) AND " +
            "(:assignedToId IS NULL OR t.assignedTo.id = :assignedToId)")
-    Page<Ticket> findTicketsWithFiltersPaginated(
+    Page<TicketRow> findTicketsWithFiltersPaginated(
             @Param("status") Status status,
             @Param("priority") Priority priority,
             @Param("categoryId") Long categoryId,
@@ -62,11 +105,98 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
             @Param("assignedToId") Long assignedToId,
             Pageable pageable);
     
+    // Keyset (seek) queries: newest first, ordered on (createdAt, id) so no OFFSET is needed.
+    // Pass PageRequest.of(0, limit) to cap the result; no count query is issued for a List return type.
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:categoryId IS NULL OR c.id = :categoryId) AND " +
+           "(:createdById IS NULL OR cb.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR a.id = :assignedToId) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TicketRow> findTicketsWithFiltersFirstPage(
+            @Param("status") Status status,
+            @Param("priority") Priority priority,
+            @Param("categoryId") Long categoryId,
+            @Param("createdById") Long createdById,
+            @Param("assignedToId") Long assignedToId,
+            Pageable pageable);
+    
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:categoryId IS NULL OR c.id = :categoryId) AND " +
+           "(:createdById IS NULL OR cb.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR a.id = :assignedToId) AND " +
+           "(t.createdAt < :cursorCreatedAt OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TicketRow> findTicketsWithFiltersAfterCursor(
+            @Param("status") Status status,
+            @Param("priority") Priority priority,
+            @Param("categoryId") Long categoryId,
+            @Param("createdById") Long createdById,
+            @Param("assignedToId") Long assignedToId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+    
+    @Query("SELECT COUNT(t) FROM Ticket t WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:categoryId IS NULL OR t.category.id = :categoryId) AND " +
+           "(:createdById IS NULL OR t.createdBy.id = :createdById) AND " +
+           "(:assignedToId IS NULL OR t.assignedTo.id = :assignedToId)")
+    Long countTicketsWithFilters(
+            @Param("status") Status status,
+            @Param("priority") Priority priority,
+            @Param("categoryId") Long categoryId,
+            @Param("createdById") Long createdById,
+            @Param("assignedToId") Long assignedToId);
+    
     // Search query
-    @Query("SELECT t FROM Ticket t WHERE " +
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE " +
            "LOWER(t.subject) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(t.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Ticket> searchTickets(@Param("searchTerm") String searchTerm);
+    List<TicketRow> searchTickets(@Param("searchTerm") String searchTerm);
+    
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a")
+    List<TicketRow> findAllTicketRows();
+    
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE t.id IN :ids")
+    List<TicketRow> findTicketRowsByIds(@Param("ids") Collection<Long> ids);
+    
+    // Walks the whole table in id order, e.g. to rebuild the search index
+    @Query("SELECT new com.ticketing.api.repository.projection.TicketRow(" +
+           "t.id, t.subject, t.description, t.status, t.priority, " +
+           "t.createdAt, t.updatedAt, t.resolvedAt, t.closedAt, t.dueDate, " +
+           "c.id, c.name, cb.id, cb.firstName, cb.lastName, a.id, a.firstName, a.lastName) " +
+           "FROM Ticket t LEFT JOIN t.category c LEFT JOIN t.createdBy cb LEFT JOIN t.assignedTo a " +
+           "WHERE t.id > :afterId ORDER BY t.id")
+    List<TicketRow> findTicketRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
     
     // Fetch with related entities
     @Query("SELECT t FROM Ticket t " +
@@ -93,12 +223,125 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.category.id = :categoryId")
     Long countByCategory(@Param("categoryId") Long categoryId);
     
-    @Query("SELECT AVG(DATEDIFF(t.resolvedAt, t.createdAt)) FROM Ticket t WHERE t.status = 'RESOLVED'")
+    @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (resolved_at - created_at))) / 86400 " +
+           "FROM tickets WHERE status = 'RESOLVED'",
+           nativeQuery = true)
     Double getAverageResolutionTimeInDays();
     
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate")
     Long countTicketsCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    // Grouped aggregates used to (re)build the in-memory statistics
+    @Query("SELECT t.status, COUNT(t) FROM Ticket t GROUP BY t.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT t.priority, COUNT(t) FROM Ticket t GROUP BY t.priority")
+    List<Object[]> countGroupedByPriority();
+    
+    @Query("SELECT c.id, c.name, COUNT(t) FROM Ticket t JOIN t.category c GROUP BY c.id, c.name")
+    List<Object[]> countGroupedByCategory();
+    
+    @Query("SELECT u.id, u.firstName, u.lastName, COUNT(t), " +
+           "SUM(CASE WHEN t.status = :resolvedStatus THEN 1 ELSE 0 END) " +
+           "FROM Ticket t JOIN t.assignedTo u GROUP BY u.id, u.firstName, u.lastName")
+    List<Object[]> countGroupedByAssignee(@Param("resolvedStatus") Status resolvedStatus);
+    
+    @Query("SELECT t.status, COUNT(t) FROM Ticket t " +
+           "WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate GROUP BY t.status")
+    List<Object[]> countGroupedByStatusCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT t.priority, COUNT(t) FROM Ticket t " +
+           "WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate GROUP BY t.priority")
+    List<Object[]> countGroupedByPriorityCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @Query(value = "SELECT EXTRACT(YEAR FROM created_at) as year, EXTRACT(MONTH FROM created_at) as month, " +
+           "COUNT(*) as ticket_count FROM tickets " +
+           "GROUP BY EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at)",
+           nativeQuery = true)
+    List<Object[]> countGroupedByCreatedMonth();
+    
+    @Query(value = "SELECT EXTRACT(YEAR FROM resolved_at) as year, EXTRACT(MONTH FROM resolved_at) as month, " +
+           "COUNT(*) as ticket_count FROM tickets WHERE resolved_at IS NOT NULL " +
+           "GROUP BY EXTRACT(YEAR FROM resolved_at), EXTRACT(MONTH FROM resolved_at)",
+           nativeQuery = true)
+    List<Object[]> countGroupedByResolvedMonth();
+    
+    @Query(value = "SELECT priority, COUNT(*) as ticket_count, " +
+           "SUM(EXTRACT(EPOCH FROM (resolved_at - created_at))) as total_seconds " +
+           "FROM tickets WHERE resolved_at IS NOT NULL GROUP BY priority",
+           nativeQuery = true)
+    List<Object[]> sumResolutionSecondsGroupedByPriority();
+    
+    @Query(value = "SELECT t.priority, COUNT(*) as ticket_count, " +
+           "SUM(EXTRACT(EPOCH FROM (fc.first_response_at - t.created_at))) as total_seconds " +
+           "FROM tickets t JOIN (SELECT ticket_id, MIN(created_at) as first_response_at " +
+           "FROM comments GROUP BY ticket_id) fc ON fc.ticket_id = t.id " +
+           "GROUP BY t.priority",
+           nativeQuery = true)
+    List<Object[]> sumFirstResponseSecondsGroupedByPriority();
+    
+    // The same aggregates over ticket_archive; every archived ticket is CLOSED and none is
+    // RESOLVED. Rows not yet filled in by TicketArchiveService have no priority
+    @Query(value = "SELECT priority, COUNT(*) as ticket_count FROM ticket_archive GROUP BY priority",
+           nativeQuery = true)
+    List<Object[]> countArchivedGroupedByPriority();
+    
+    @Query(value = "SELECT c.id, c.name, COUNT(*) as ticket_count FROM ticket_archive ta " +
+           "JOIN categories c ON c.id = ta.category_id GROUP BY c.id, c.name",
+           nativeQuery = true)
+    List<Object[]> countArchivedGroupedByCategory();
+    
+    @Query(value = "SELECT u.id, u.first_name, u.last_name, COUNT(*) as ticket_count FROM ticket_archive ta " +
+           "JOIN users u ON u.id = ta.assigned_to_id GROUP BY u.id, u.first_name, u.last_name",
+           nativeQuery = true)
+    List<Object[]> countArchivedGroupedByAssignee();
+    
+    @Query(value = "SELECT EXTRACT(YEAR FROM created_at) as year, EXTRACT(MONTH FROM created_at) as month, " +
+           "COUNT(*) as ticket_count FROM ticket_archive " +
+           "GROUP BY EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at)",
+           nativeQuery = true)
+    List<Object[]> countArchivedGroupedByCreatedMonth();
+    
+    @Query(value = "SELECT EXTRACT(YEAR FROM resolved_at) as year, EXTRACT(MONTH FROM resolved_at) as month, " +
+           "COUNT(*) as ticket_count FROM ticket_archive WHERE resolved_at IS NOT NULL " +
+           "GROUP BY EXTRACT(YEAR FROM resolved_at), EXTRACT(MONTH FROM resolved_at)",
+           nativeQuery = true)
+    List<Object[]> countArchivedGroupedByResolvedMonth();
+    
+    @Query(value = "SELECT priority, COUNT(*) as ticket_count, " +
+           "SUM(EXTRACT(EPOCH FROM (resolved_at - created_at))) as total_seconds " +
+           "FROM ticket_archive WHERE resolved_at IS NOT NULL GROUP BY priority",
+           nativeQuery = true)
+    List<Object[]> sumArchivedResolutionSecondsGroupedByPriority();
+    
+    @Query(value = "SELECT priority, COUNT(*) as ticket_count, " +
+           "SUM(EXTRACT(EPOCH FROM (first_response_at - created_at))) as total_seconds " +
+           "FROM ticket_archive WHERE first_response_at IS NOT NULL GROUP BY priority",
+           nativeQuery = true)
+    List<Object[]> sumArchivedFirstResponseSecondsGroupedByPriority();
+    
+    @Query(value = "SELECT priority, EXTRACT(YEAR FROM created_at) as year, EXTRACT(MONTH FROM created_at) as month, " +
+           "COUNT(*) as ticket_count FROM ticket_archive " +
+           "WHERE created_at >= :startDate AND created_at <= :endDate " +
+           "GROUP BY priority, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at)",
+           nativeQuery = true)
+    List<Object[]> countArchivedCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Latency samples for rebuilding the percentile sketches, paged by id
+    @Query("SELECT t.id, t.priority, c.id, a.id, t.createdAt, t.resolvedAt FROM Ticket t " +
+           "LEFT JOIN t.category c LEFT JOIN t.assignedTo a " +
+           "WHERE t.resolvedAt IS NOT NULL AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findResolutionSamples(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query(value = "SELECT t.id, t.priority, t.category_id, t.assigned_to_id, t.created_at, " +
+           "MIN(c.created_at) as first_response_at FROM tickets t " +
+           "JOIN comments c ON c.ticket_id = t.id AND c.user_id <> t.created_by_id " +
+           "WHERE t.id > :afterId " +
+           "GROUP BY t.id, t.priority, t.category_id, t.assigned_to_id, t.created_at " +
+           "ORDER BY t.id LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFirstResponseSamples(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
     @Query(value = "SELECT EXTRACT(MONTH FROM created_at) as month, " +
            "EXTRACT(YEAR FROM created_at) as year, COUNT(*) as ticket_count " +
            "FROM tickets " +
@@ -28,6 +28,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.assignedTo.id = :userId AND t.status = 'RESOLVED'")
     Long countResolvedTickets(@Param("userId") Long userId);
     
+    // id/username pairs, for resolving references in bulk without loading entities
+    @Query("SELECT u.id, u.username FROM User u")
+    List<Object[]> findAllIdsAndUsernames();
+    
     @Query("SELECT u FROM User u WHERE u.role = 'AGENT' ORDER BY u.lastName, u.firstName")
     List<User> findAllAgents();
     
@@ -0,0 +1,32 @@
+package com.ticketing.api.repository.projection;
+
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of exactly the columns a ticket list item needs, filled by a JPQL constructor
+ * expression over tickets joined with category, creator and assignee. Selecting this
+ * instead of {@code Ticket} avoids initializing the lazy associations row by row.
+ */
+public record TicketRow(
+        Long id,
+        String subject,
+        String description,
+        Status status,
+        Priority priority,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime resolvedAt,
+        LocalDateTime closedAt,
+        LocalDateTime dueDate,
+        Long categoryId,
+        String categoryName,
+        Long createdById,
+        String createdByFirstName,
+        String createdByLastName,
+        Long assignedToId,
+        String assignedToFirstName,
+        String assignedToLastName) {
+}
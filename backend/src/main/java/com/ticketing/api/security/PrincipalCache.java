@@ -0,0 +1,85 @@
+package com.ticketing.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketing.api.enums.Role;
+import com.ticketing.api.exception.ResourceNotFoundException;
+import com.ticketing.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-based cache from authenticated principal name to the local user's id,
+ * role and active flag, so a request doesn't have to look the user up by username.
+ * Entries are evicted by {@code UserService} whenever a user changes; hit/miss counts
+ * are published as the {@code principalCache} cache metrics.
+ */
+@Component
+public class PrincipalCache {
+
+    public record CachedPrincipal(Long id, String username, Role role, boolean active) {
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedPrincipal> cache;
+
+    @Autowired
+    public PrincipalCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principalCache");
+    }
+
+    // Unknown usernames are not cached, so a user provisioned later is found on the next request.
+    // The lookup runs outside cache.get(key, loader): that would hold a map bin lock across the
+    // query and pin the carrier when requests run on virtual threads.
+    public Optional<CachedPrincipal> resolve(String username) {
+        CachedPrincipal cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<CachedPrincipal> loaded = userRepository.findByUsername(username)
+                .map(user -> new CachedPrincipal(user.getId(), user.getUsername(), user.getRole(), user.isActive()));
+        loaded.ifPresent(principal -> cache.put(username, principal));
+        return loaded;
+    }
+
+    public Optional<CachedPrincipal> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        return resolve(authentication.getName());
+    }
+
+    public CachedPrincipal requireCurrent() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return resolve(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public void evictUserId(Long userId) {
+        cache.asMap().values().removeIf(principal -> principal.id().equals(userId));
+    }
+}
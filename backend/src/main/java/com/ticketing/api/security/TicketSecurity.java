@@ -0,0 +1,114 @@
+package com.ticketing.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketing.api.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ticket ownership checks used from {@code @PreAuthorize} expressions as {@code @ticketSecurity}.
+ * <p>
+ * Each check is a single {@code EXISTS} on the tickets table. Answers are kept for a few seconds
+ * per (user, ticket) pair; {@code TicketService} invalidates a ticket's entries when its assignee
+ * changes or it is deleted.
+ */
+@Component("ticketSecurity")
+public class TicketSecurity {
+
+    private enum Relation {
+        CREATOR,
+        ASSIGNEE
+    }
+
+    private record DecisionKey(Long userId, Long ticketId, Relation relation) {
+    }
+
+    private final TicketRepository ticketRepository;
+    private final PrincipalCache principalCache;
+    private final Cache<DecisionKey, Boolean> decisions;
+
+    @Autowired
+    public TicketSecurity(
+            TicketRepository ticketRepository,
+            PrincipalCache principalCache,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.ticket-decision-cache.max-size:50000}") long maxSize,
+            @Value("${app.security.ticket-decision-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.ticketRepository = ticketRepository;
+        this.principalCache = principalCache;
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, decisions, "ticketDecisionCache");
+    }
+
+    public boolean isTicketCreator(Long ticketId, Authentication authentication) {
+        return decide(ticketId, authentication, Relation.CREATOR);
+    }
+
+    public boolean isTicketAssignee(Long ticketId, Authentication authentication) {
+        return decide(ticketId, authentication, Relation.ASSIGNEE);
+    }
+
+    // For bulk changes; callers invoke it after their transaction has committed
+    public void invalidateTickets(Collection<Long> ticketIds) {
+        Set<Long> ids = new HashSet<>(ticketIds);
+        decisions.asMap().keySet().removeIf(key -> ids.contains(key.ticketId()));
+    }
+
+    /**
+     * Drops cached decisions for a ticket. Called now and again after commit, so a check that
+     * ran against the old row while the transaction was open cannot leave a stale answer behind.
+     */
+    public void invalidateTicket(Long ticketId) {
+        evict(ticketId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ticketId);
+                }
+            });
+        }
+    }
+
+    private boolean decide(Long ticketId, Authentication authentication, Relation relation) {
+        if (ticketId == null || authentication == null) {
+            return false;
+        }
+        return principalCache.resolve(authentication.getName())
+                .map(principal -> decide(new DecisionKey(principal.id(), ticketId, relation)))
+                .orElse(false);
+    }
+
+    // Queried outside the cache's loader so no map lock is held (and no virtual thread pinned) during the EXISTS
+    private boolean decide(DecisionKey key) {
+        Boolean cached = decisions.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        boolean decision = key.relation() == Relation.CREATOR
+                ? ticketRepository.existsByIdAndCreatedById(key.ticketId(), key.userId())
+                : ticketRepository.existsByIdAndAssignedToId(key.ticketId(), key.userId());
+        decisions.put(key, decision);
+        return decision;
+    }
+
+    private void evict(Long ticketId) {
+        decisions.asMap().keySet().removeIf(key -> key.ticketId().equals(ticketId));
+    }
+}
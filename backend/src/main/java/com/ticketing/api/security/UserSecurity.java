@@ -1,7 +1,5 @@
 package com.ticketing.api.security;
 
-import com.ticketing.api.entity.User;
-import com.ticketing.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,42 +9,22 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class UserSecurity {
     
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TicketSecurity ticketSecurity;
     
     public boolean isCurrentUser(Long userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        return userRepository.findById(userId)
-                .map(user -> user.getUsername().equals(username))
+        return principalCache.current()
+                .map(principal -> principal.id().equals(userId))
                 .orElse(false);
     }
     
     public boolean isTicketCreator(Long ticketId, Long userId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        User currentUser = userRepository.findByUsername(username).orElse(null);
-        
-        if (currentUser == null) {
-            return false;
-        }
-        
-        return currentUser.getCreatedTickets().stream()
-                .anyMatch(ticket -> ticket.getId().equals(ticketId));
+        return ticketSecurity.isTicketCreator(ticketId, authentication);
     }
     
     public boolean isTicketAssignee(Long ticketId, Long userId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        User currentUser = userRepository.findByUsername(username).orElse(null);
-        
-        if (currentUser == null) {
-            return false;
-        }
-        
-        return currentUser.getAssignedTickets().stream()
-                .anyMatch(ticket -> ticket.getId().equals(ticketId));
+        return ticketSecurity.isTicketAssignee(ticketId, authentication);
     }
-}
\ No newline at end of file
+}
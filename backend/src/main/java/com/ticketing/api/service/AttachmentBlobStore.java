@@ -0,0 +1,438 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.exception.BadRequestException;
+import com.ticketing.api.exception.ChecksumMismatchException;
+import com.ticketing.api.exception.PayloadTooLargeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Content-addressed file store behind {@link AttachmentService}. Every distinct content is kept
+ * once, at {@code blobs/ab/cd/<sha256>} under {@code app.attachments.storage-dir}, and has a row
+ * in {@code attachment_blobs} counting the attachments that point at it.
+ * <p>
+ * An upload is hashed while it is streamed to a temporary file ({@link #write}); inside the
+ * transaction that inserts the attachment row, {@link #reference} counts the new reference and
+ * moves the file into place unless the content is already stored; if that transaction rolls back,
+ * the moved file is deleted again. Deleting and archiving tickets release their references
+ * ({@link #releaseTicketAttachments}). Blobs whose count has been zero for the grace period are
+ * deleted, row and file, by {@link #collectGarbage}. Attachments stored before content addressing
+ * have no hash and own their file, which is deleted when their ticket is.
+ */
+@Service
+public class AttachmentBlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentBlobStore.class);
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final String BLOB_DIR = "blobs";
+    private static final Duration STALE_UPLOAD_AGE = Duration.ofDays(1);
+
+    // Locks the blob row until the caller's transaction ends
+    private static final String REFERENCE_BLOB =
+            "INSERT INTO attachment_blobs (content_hash, size, ref_count) VALUES (?, ?, 1) " +
+            "ON CONFLICT (content_hash) DO UPDATE SET ref_count = attachment_blobs.ref_count + 1, released_at = NULL";
+
+    private static final String RELEASE_TICKET_BLOBS =
+            "UPDATE attachment_blobs b SET ref_count = b.ref_count - r.refs, released_at = now() " +
+            "FROM (SELECT content_hash, count(*) AS refs FROM attachments " +
+            "WHERE ticket_id = ANY(?) AND content_hash IS NOT NULL GROUP BY content_hash) r " +
+            "WHERE b.content_hash = r.content_hash";
+
+    private static final String LEGACY_TICKET_FILES =
+            "SELECT file_path FROM attachments WHERE ticket_id = ANY(?) AND content_hash IS NULL";
+
+    // Inserted only when no other upload has referenced the content; the row lock then keeps
+    // them off the file until it is deleted
+    private static final String CLAIM_ORPHANED_BLOB =
+            "INSERT INTO attachment_blobs (content_hash, size, ref_count, released_at) VALUES (?, ?, 0, now()) " +
+            "ON CONFLICT (content_hash) DO NOTHING";
+
+    private static final String EXISTING_UPLOADS = "SELECT id FROM attachment_uploads WHERE id = ANY(?)";
+
+    // SKIP LOCKED: a blob that an upload is referencing again right now is left alone
+    private static final String DELETE_UNREFERENCED =
+            "DELETE FROM attachment_blobs WHERE content_hash IN (" +
+            "SELECT content_hash FROM attachment_blobs WHERE ref_count = 0 AND released_at < ? " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING content_hash";
+
+    // An upload that has been hashed and written to a temporary file, not yet referenced
+    public record PendingBlob(String contentHash, long size, Path tempFile) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate cleanupTransaction;
+    private final Path storageDir;
+    private final Path tempDir;
+    private final long maxFileSize;
+    private final boolean gcEnabled;
+    private final Duration gcGracePeriod;
+    private final int gcBatchSize;
+
+    @Autowired
+    public AttachmentBlobStore(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.attachments.storage-dir:./data/attachments}") String storageDir,
+            @Value("${app.attachments.max-file-size:10GB}") DataSize maxFileSize,
+            @Value("${app.attachments.gc.enabled:true}") boolean gcEnabled,
+            @Value("${app.attachments.gc.grace-period-minutes:60}") long gcGracePeriodMinutes,
+            @Value("${app.attachments.gc.batch-size:1000}") int gcBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Runs after the caller's transaction has completed, so it must not join it
+        this.cleanupTransaction = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.storageDir = Paths.get(storageDir).toAbsolutePath().normalize();
+        // Same file system as the blobs, so completed uploads are moved atomically
+        this.tempDir = this.storageDir.resolve("tmp");
+        this.maxFileSize = maxFileSize.toBytes();
+        this.gcEnabled = gcEnabled;
+        this.gcGracePeriod = Duration.ofMinutes(gcGracePeriodMinutes);
+        this.gcBatchSize = gcBatchSize;
+        try {
+            Files.createDirectories(tempDir);
+            Files.createDirectories(this.storageDir.resolve(BLOB_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create attachment storage directory " + this.storageDir, e);
+        }
+    }
+
+    public void checkSize(long declaredSize) {
+        if (declaredSize > maxFileSize) {
+            throw tooLarge();
+        }
+    }
+
+    // Copies and hashes until the end of the stream, failing as soon as the limit is passed
+    public PendingBlob write(InputStream body) {
+        MessageDigest digest = sha256();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(tempDir, "upload-", ".part");
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(body, digest));
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(in, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                    if (size > maxFileSize) {
+                        throw tooLarge();
+                    }
+                }
+                if (size == 0) {
+                    throw new BadRequestException("Attachment is empty");
+                }
+                // On disk before any row that points at it is committed
+                out.force(false);
+            }
+            return new PendingBlob(HexFormat.of().formatHex(digest.digest()), size, temp);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Failed to store attachment upload", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    // Working file of a resumable upload; its length is the upload's offset
+    public Path uploadFile(String uploadId) {
+        return tempDir.resolve(uploadId + ".upload");
+    }
+
+    /**
+     * Appends one chunk of a resumable upload at {@code offset}, reading at most {@code maxLength}
+     * bytes, and returns how many were written. Anything past {@code offset}, left by a chunk whose
+     * offset was never recorded, is cut off first. With an {@code expectedSha256} the chunk is
+     * verified and, if it does not match or fails part way, cut off again so the client resends
+     * it whole. Without one, whatever arrived before a broken connection is kept and the client
+     * resumes after it. {@code progress} runs after every block written, e.g. to renew a lease.
+     */
+    public long append(Path file, long offset, long maxLength, InputStream chunk, byte[] expectedSha256,
+                       Runnable progress) {
+        MessageDigest digest = sha256();
+        boolean verified = expectedSha256 != null;
+        try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(chunk, digest));
+             FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            out.truncate(offset);
+            long written = 0;
+            try {
+                long transferred;
+                while (written < maxLength
+                        && (transferred = out.transferFrom(in, offset + written, Math.min(TRANSFER_CHUNK, maxLength - written))) > 0) {
+                    written += transferred;
+                    progress.run();
+                }
+                if (written == maxLength && chunk.read() != -1) {
+                    throw new BadRequestException("Chunk extends past the declared upload length");
+                }
+                if (verified && !MessageDigest.isEqual(expectedSha256, digest.digest())) {
+                    throw new ChecksumMismatchException("Chunk does not match its Upload-Checksum");
+                }
+                out.force(false);
+                return written;
+            } catch (IOException | RuntimeException e) {
+                if (verified || e instanceof BadRequestException) {
+                    out.truncate(offset);
+                } else {
+                    out.force(false);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write upload chunk to " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Hashes a completed resumable upload; the result is referenced like any other upload. The
+     * blob gets a temporary file of its own, a hard link where the file system allows it, so the
+     * working file survives a failed attachment and the client can retry completing it.
+     */
+    public PendingBlob seal(Path file) {
+        Path temp = tempDir.resolve("upload-" + UUID.randomUUID() + ".part");
+        try {
+            try {
+                Files.createLink(temp, file);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(file, temp);
+            }
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(temp), digest)) {
+                long size = in.transferTo(OutputStream.nullOutputStream());
+                return new PendingBlob(HexFormat.of().formatHex(digest.digest()), size, temp);
+            }
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Failed to hash upload " + file.getFileName(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Counts one more reference to the blob in the caller's transaction and moves the upload into
+     * place if the content is not stored yet. A file moved here is deleted again if the transaction
+     * rolls back, unless another upload has referenced the same content by then.
+     */
+    public void reference(PendingBlob blob) {
+        jdbcTemplate.update(REFERENCE_BLOB, blob.contentHash(), blob.size());
+        Path target = resolve(relativePath(blob.contentHash()));
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(blob.tempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + blob.contentHash(), e);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteOrphanedContent(blob);
+                }
+            }
+        });
+    }
+
+    // Removes the temporary file of an upload that was deduplicated or failed; no-op once moved
+    public void discard(PendingBlob blob) {
+        deleteQuietly(blob.tempFile());
+    }
+
+    public void discardUpload(String uploadId) {
+        deleteQuietly(uploadFile(uploadId));
+    }
+
+    private void deleteContent(String contentHash) {
+        deleteQuietly(resolve(relativePath(contentHash)));
+    }
+
+    // Must run in the transaction that deletes the tickets' attachment rows, before they are deleted
+    public void releaseTicketAttachments(Collection<Long> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = ticketIds.toArray(new Long[0]);
+        jdbcTemplate.update(RELEASE_TICKET_BLOBS, (Object) ids);
+
+        // Files of attachments without a hash are not shared; they go once the rows are gone for good
+        List<Path> legacyFiles = jdbcTemplate.queryForList(LEGACY_TICKET_FILES, String.class, (Object) ids).stream()
+                .map(this::resolve)
+                .toList();
+        if (!legacyFiles.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    legacyFiles.forEach(AttachmentBlobStore::deleteQuietly);
+                }
+            });
+        }
+    }
+
+    public String relativePath(String contentHash) {
+        return BLOB_DIR + "/" + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+
+    // File paths are stored relative to the storage directory and must stay inside it
+    public Path resolve(String relativePath) {
+        Path path = storageDir.resolve(relativePath).normalize();
+        if (!path.startsWith(storageDir)) {
+            throw new IllegalStateException("Attachment path outside the storage directory: " + relativePath);
+        }
+        return path;
+    }
+
+    @Scheduled(cron = "${app.attachments.gc.cron:0 30 3 * * *}")
+    public void collectGarbage() {
+        if (!gcEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(gcGracePeriod));
+        int collected = 0;
+        while (true) {
+            List<String> deleted;
+            try {
+                deleted = transactionTemplate.execute(status -> {
+                    List<String> hashes = jdbcTemplate.queryForList(DELETE_UNREFERENCED, String.class, cutoff, gcBatchSize);
+                    // Files go before commit: an upload of the same content blocks on these rows, then
+                    // finds the file missing and writes it again
+                    hashes.forEach(this::deleteContent);
+                    return hashes;
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to collect unreferenced attachment blobs; stopping this run", e);
+                break;
+            }
+            if (deleted == null || deleted.isEmpty()) {
+                break;
+            }
+            collected += deleted.size();
+            if (deleted.size() < gcBatchSize) {
+                break;
+            }
+        }
+        deleteStaleUploads();
+        if (collected > 0) {
+            log.info("Collected {} unreferenced attachment blobs in {} ms", collected, System.currentTimeMillis() - start);
+        }
+    }
+
+    // After a rolled-back reference: another upload may have found the file in the meantime and
+    // committed a reference to it, in which case the claim finds its row and the file stays
+    private void deleteOrphanedContent(PendingBlob blob) {
+        try {
+            cleanupTransaction.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(CLAIM_ORPHANED_BLOB, blob.contentHash(), blob.size()) == 1) {
+                    deleteContent(blob.contentHash());
+                    jdbcTemplate.update("DELETE FROM attachment_blobs WHERE content_hash = ?", blob.contentHash());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete blob {} after its upload rolled back", blob.contentHash(), e);
+        }
+    }
+
+    // Temporary files left behind by uploads that never finished, e.g. across a restart, and working
+    // files of resumable uploads whose session is gone, e.g. with its ticket
+    private void deleteStaleUploads() {
+        FileTime cutoff = FileTime.from(Instant.now().minus(STALE_UPLOAD_AGE));
+        Map<String, Path> idleUploads = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir, "*.{part,upload}")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) >= 0) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                if (name.endsWith(".part")) {
+                    deleteQuietly(file);
+                } else {
+                    idleUploads.put(name.substring(0, name.length() - ".upload".length()), file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up stale attachment uploads in {}", tempDir, e);
+            return;
+        }
+        if (idleUploads.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.queryForList(EXISTING_UPLOADS, String.class, (Object) idleUploads.keySet().toArray(new String[0]))
+                    .forEach(idleUploads::remove);
+        } catch (RuntimeException e) {
+            log.warn("Failed to look up resumable uploads; keeping their working files for now", e);
+            return;
+        }
+        idleUploads.values().forEach(AttachmentBlobStore::deleteQuietly);
+    }
+
+    private PayloadTooLargeException tooLarge() {
+        return new PayloadTooLargeException("Attachment exceeds the maximum size of "
+                + DataSize.ofBytes(maxFileSize).toMegabytes() + " MB");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete attachment file {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.dto.AttachmentDTO;
+import com.ticketing.api.entity.Attachment;
+import com.ticketing.api.entity.Ticket;
+import com.ticketing.api.entity.User;
+import com.ticketing.api.exception.ResourceNotFoundException;
+import com.ticketing.api.repository.AttachmentRepository;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Ticket attachments: metadata in the attachments table, content in {@link AttachmentBlobStore},
+ * where identical files uploaded to different tickets are stored once.
+ * <p>
+ * Uploads are the raw request body, hashed and copied to a temporary file, so memory per upload
+ * is a fixed copy buffer whatever the file size. No transaction or connection is held while the
+ * body is read; the blob reference and the row are written afterwards in one short transaction.
+ * Downloads are served from {@link #getStoredAttachment} by the controller. Archived tickets
+ * still list their attachments, but their content has been released and is no longer served.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // A servable attachment: its metadata and the file on disk
+    public record StoredAttachment(AttachmentDTO attachment, Path path) {
+    }
+
+    private final AttachmentRepository attachmentRepository;
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final TicketHistoryService historyService;
+    private final TicketArchiveService archiveService;
+    private final AttachmentBlobStore blobStore;
+    private final PrincipalCache principalCache;
+    private final ResourceRevisions revisions;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AttachmentService(
+            AttachmentRepository attachmentRepository,
+            TicketRepository ticketRepository,
+            UserRepository userRepository,
+            TicketHistoryService historyService,
+            TicketArchiveService archiveService,
+            AttachmentBlobStore blobStore,
+            PrincipalCache principalCache,
+            ResourceRevisions revisions,
+            PlatformTransactionManager transactionManager) {
+        this.attachmentRepository = attachmentRepository;
+        this.ticketRepository = ticketRepository;
+        this.userRepository = userRepository;
+        this.historyService = historyService;
+        this.archiveService = archiveService;
+        this.blobStore = blobStore;
+        this.principalCache = principalCache;
+        this.revisions = revisions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttachmentDTO> getAttachmentsByTicketId(Long ticketId) {
+        List<AttachmentDTO> attachments = findLiveAttachments(ticketId);
+        // Only a ticket that is no longer live may be archived; the archive keeps the metadata only
+        if (attachments.isEmpty() && !ticketRepository.existsById(ticketId)) {
+            return archiveService.findAttachments(ticketId).orElseGet(List::of);
+        }
+        return attachments;
+    }
+
+    // The hot tables only; TicketService reads an archived ticket's attachments with the ticket itself
+    List<AttachmentDTO> findLiveAttachments(Long ticketId) {
+        return attachmentRepository.findByTicketIdWithUploader(ticketId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public StoredAttachment getStoredAttachment(Long ticketId, Long attachmentId) {
+        AttachmentDTO attachment = attachmentRepository.findByIdAndTicketIdWithUploader(attachmentId, ticketId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "id", attachmentId));
+
+        Path path = blobStore.resolve(attachment.getFilePath());
+        if (!Files.isRegularFile(path)) {
+            log.warn("File {} of attachment {} is missing", path, attachmentId);
+            throw new ResourceNotFoundException("Attachment", "id", attachmentId);
+        }
+        return new StoredAttachment(attachment, path);
+    }
+
+    public AttachmentDTO upload(Long ticketId, String originalFilename, String contentType,
+                                long declaredLength, InputStream body) {
+        PrincipalCache.CachedPrincipal currentUser = principalCache.requireCurrent();
+        if (!ticketRepository.existsById(ticketId)) {
+            throw new ResourceNotFoundException("Ticket", "id", ticketId);
+        }
+        blobStore.checkSize(declaredLength);
+
+        AttachmentBlobStore.PendingBlob blob = blobStore.write(body);
+        return attach(ticketId, currentUser.id(), originalFilename, contentType, blob);
+    }
+
+    /**
+     * Turns a written and hashed upload into an attachment of the ticket: references its blob and
+     * inserts the row in one transaction. The upload's temporary file is gone afterwards, whether
+     * it was moved into the store, deduplicated or the attachment failed.
+     */
+    public AttachmentDTO attach(Long ticketId, Long userId, String originalFilename, String contentType,
+                                AttachmentBlobStore.PendingBlob blob) {
+        return attach(ticketId, userId, originalFilename, contentType, blob, () -> { });
+    }
+
+    // As above, running inTransaction last in the attachment's transaction; whatever it throws rolls the attachment back
+    public AttachmentDTO attach(Long ticketId, Long userId, String originalFilename, String contentType,
+                                AttachmentBlobStore.PendingBlob blob, Runnable inTransaction) {
+        String name = sanitizeFilename(originalFilename);
+        String type = contentType == null || contentType.isBlank()
+                ? DEFAULT_CONTENT_TYPE : truncate(contentType, MAX_NAME_LENGTH);
+        try {
+            // A blob stored by this attachment is deleted again if the transaction rolls back
+            return transactionTemplate.execute(status -> {
+                blobStore.reference(blob);
+                AttachmentDTO attachment = saveAttachment(ticketId, userId, name, type, blob);
+                inTransaction.run();
+                return attachment;
+            });
+        } finally {
+            blobStore.discard(blob);
+        }
+    }
+
+    private AttachmentDTO saveAttachment(Long ticketId, Long userId, String originalFilename, String contentType,
+                                         AttachmentBlobStore.PendingBlob blob) {
+        Ticket ticket = ticketRepository.findById(ticketId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket", "id", ticketId));
+        User uploader = userRepository.getReferenceById(userId);
+
+        Attachment attachment = new Attachment();
+        attachment.setFilename(blob.contentHash());
+        attachment.setOriginalFilename(originalFilename);
+        attachment.setContentType(contentType);
+        attachment.setFileSize(blob.size());
+        attachment.setFilePath(blobStore.relativePath(blob.contentHash()));
+        attachment.setContentHash(blob.contentHash());
+        attachment.setUploadedAt(LocalDateTime.now());
+        attachment.setTicket(ticket);
+        attachment.setUploadedBy(uploader);
+        Attachment savedAttachment = attachmentRepository.save(attachment);
+
+        historyService.createTicketHistory(ticket, "attachment", null, originalFilename, userId);
+        revisions.ticketChanged(ticketId);
+        return convertToDTO(savedAttachment);
+    }
+
+    private static String sanitizeFilename(String originalFilename) {
+        String name = originalFilename == null ? "" : originalFilename.strip();
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        return name.isEmpty() ? "attachment" : truncate(name, MAX_NAME_LENGTH);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private AttachmentDTO convertToDTO(Attachment attachment) {
+        AttachmentDTO dto = new AttachmentDTO();
+        dto.setId(attachment.getId());
+        dto.setFilename(attachment.getFilename());
+        dto.setOriginalFilename(attachment.getOriginalFilename());
+        dto.setContentType(attachment.getContentType());
+        dto.setFileSize(attachment.getFileSize());
+        dto.setFilePath(attachment.getFilePath());
+        dto.setContentHash(attachment.getContentHash());
+        dto.setUploadedAt(attachment.getUploadedAt());
+        dto.setTicketId(attachment.getTicket().getId());
+        dto.setUploadedById(attachment.getUploadedBy().getId());
+        dto.setUploadedByName(attachment.getUploadedBy().getFirstName() + " " + attachment.getUploadedBy().getLastName());
+        return dto;
+    }
+}
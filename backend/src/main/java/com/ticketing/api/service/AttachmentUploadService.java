@@ -0,0 +1,342 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.dto.AttachmentDTO;
+import com.ticketing.api.dto.AttachmentUploadDTO;
+import com.ticketing.api.exception.BadRequestException;
+import com.ticketing.api.exception.ConflictException;
+import com.ticketing.api.exception.ResourceNotFoundException;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.security.PrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable attachment uploads, modelled on the tus protocol: the client declares the file size
+ * (and optionally its SHA-256), then sends the bytes in chunks, each at the offset the server
+ * reports. After a broken connection it asks for the offset and carries on from there.
+ * <p>
+ * The received bytes go to a working file in the attachment store; the session row in
+ * {@code attachment_uploads} holds the declared metadata and the offset. Chunks can carry a
+ * SHA-256 of their own ({@code Upload-Checksum: sha256 <base64>}); once the last chunk is in, the
+ * whole file is hashed, checked against the declared hash and attached through
+ * {@link AttachmentService#attach}, whose transaction also deletes the session. If attaching fails,
+ * the session stays at its full offset and an empty chunk there completes it again.
+ * <p>
+ * No transaction is open while a chunk streams in. The writer takes a lease on the session in a
+ * short update, renews it as blocks reach the disk and records the new offset when it is done, so
+ * chunks of one upload are applied one at a time whichever instance receives them. A cancel or the
+ * expiry leaves a leased session alone. Sessions idle for {@code app.attachments.uploads.expire-hours}
+ * are removed by the collection run.
+ */
+@Service
+public class AttachmentUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentUploadService.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String INSERT_UPLOAD =
+            "INSERT INTO attachment_uploads (id, ticket_id, user_id, filename, content_type, size, content_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_UPLOAD =
+            "SELECT id, ticket_id, user_id, filename, content_type, size, content_hash, upload_offset, updated_at " +
+            "FROM attachment_uploads WHERE id = ?";
+
+    // Taken only at the offset the client expects and while no other chunk holds a lease
+    private static final String CLAIM_LEASE =
+            "UPDATE attachment_uploads SET lease_token = ?, leased_until = now() + make_interval(secs => ?) " +
+            "WHERE id = ? AND upload_offset = ? AND (leased_until IS NULL OR leased_until < now())";
+
+    private static final String RENEW_LEASE =
+            "UPDATE attachment_uploads SET leased_until = now() + make_interval(secs => ?) " +
+            "WHERE id = ? AND lease_token = ?";
+
+    private static final String RELEASE_LEASE =
+            "UPDATE attachment_uploads SET upload_offset = ?, updated_at = now(), lease_token = NULL, " +
+            "leased_until = NULL WHERE id = ? AND lease_token = ?";
+
+    private static final String DELETE_LEASED = "DELETE FROM attachment_uploads WHERE id = ? AND lease_token = ?";
+
+    private static final String DELETE_UNLEASED =
+            "DELETE FROM attachment_uploads WHERE id = ? AND (leased_until IS NULL OR leased_until < now())";
+
+    // An upload with a chunk being written right now is not expired under it
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM attachment_uploads WHERE id IN (" +
+            "SELECT id FROM attachment_uploads WHERE updated_at < ? " +
+            "AND (leased_until IS NULL OR leased_until < now()) FOR UPDATE SKIP LOCKED) RETURNING id";
+
+    // The state of one upload as stored in attachment_uploads
+    private record UploadSession(String id, Long ticketId, Long userId, String filename, String contentType,
+                                 long size, String contentHash, long offset, LocalDateTime updatedAt) {
+    }
+
+    // Where an upload stands after a chunk; attachment is set once the last chunk completed it
+    public record ChunkResult(long offset, AttachmentDTO attachment) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TicketRepository ticketRepository;
+    private final AttachmentService attachmentService;
+    private final AttachmentBlobStore blobStore;
+    private final PrincipalCache principalCache;
+    private final Duration expireAfter;
+    private final Duration leaseDuration;
+    private final boolean cleanupEnabled;
+
+    @Autowired
+    public AttachmentUploadService(
+            JdbcTemplate jdbcTemplate,
+            TicketRepository ticketRepository,
+            AttachmentService attachmentService,
+            AttachmentBlobStore blobStore,
+            PrincipalCache principalCache,
+            @Value("${app.attachments.uploads.expire-hours:24}") long expireHours,
+            @Value("${app.attachments.uploads.lease-seconds:300}") long leaseSeconds,
+            @Value("${app.attachments.gc.enabled:true}") boolean cleanupEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ticketRepository = ticketRepository;
+        this.attachmentService = attachmentService;
+        this.blobStore = blobStore;
+        this.principalCache = principalCache;
+        this.expireAfter = Duration.ofHours(expireHours);
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.cleanupEnabled = cleanupEnabled;
+    }
+
+    public AttachmentUploadDTO createUpload(Long ticketId, String filename, String contentType,
+                                            long size, String contentHash) {
+        PrincipalCache.CachedPrincipal currentUser = principalCache.requireCurrent();
+        if (!ticketRepository.existsById(ticketId)) {
+            throw new ResourceNotFoundException("Ticket", "id", ticketId);
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Upload size must be positive");
+        }
+        blobStore.checkSize(size);
+        String expectedHash = contentHash == null || contentHash.isBlank() ? null : contentHash.toLowerCase(Locale.ROOT);
+        if (expectedHash != null && !SHA256_HEX.matcher(expectedHash).matches()) {
+            throw new BadRequestException("sha256 must be 64 hexadecimal characters");
+        }
+        String type = contentType == null || contentType.isBlank() ? "application/octet-stream" : truncate(contentType);
+        String name = filename == null || filename.isBlank() ? "attachment" : truncate(filename);
+
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createFile(blobStore.uploadFile(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create upload " + uploadId, e);
+        }
+        jdbcTemplate.update(INSERT_UPLOAD, uploadId, ticketId, currentUser.id(), name, type, size, expectedHash);
+
+        UploadSession session = new UploadSession(uploadId, ticketId, currentUser.id(), name, type,
+                size, expectedHash, 0, LocalDateTime.now());
+        return toDTO(session);
+    }
+
+    public AttachmentUploadDTO getUpload(Long ticketId, String uploadId) {
+        return toDTO(requireSession(ticketId, uploadId));
+    }
+
+    /**
+     * Writes a chunk at {@code offset}, which has to be where the upload currently stands, and
+     * completes the upload when the chunk reaches the declared size.
+     */
+    public ChunkResult appendChunk(Long ticketId, String uploadId, long offset, String uploadChecksum, InputStream body) {
+        byte[] expectedChunkHash = parseChecksum(uploadChecksum);
+        UploadSession session = requireSession(ticketId, uploadId);
+        String lease = claimLease(session, offset);
+
+        long newOffset;
+        try {
+            newOffset = offset + blobStore.append(blobStore.uploadFile(uploadId), offset, session.size() - offset,
+                    body, expectedChunkHash, leaseRenewal(uploadId, lease));
+        } catch (RuntimeException e) {
+            // A chunk that was not verified keeps whatever reached the disk
+            releaseAfterFailure(session, lease, fileLength(uploadId), e);
+            throw e;
+        }
+        if (newOffset < session.size()) {
+            if (jdbcTemplate.update(RELEASE_LEASE, newOffset, uploadId, lease) == 0) {
+                throw lostLease(uploadId);
+            }
+            return new ChunkResult(newOffset, null);
+        }
+        try {
+            return new ChunkResult(newOffset, complete(session, lease));
+        } catch (RuntimeException e) {
+            releaseAfterFailure(session, lease, newOffset, e);
+            throw e;
+        }
+    }
+
+    // Refused while a chunk is being written; cancel again once it is done
+    public void cancelUpload(Long ticketId, String uploadId) {
+        requireSession(ticketId, uploadId);
+        if (jdbcTemplate.update(DELETE_UNLEASED, uploadId) == 0) {
+            throw new ConflictException("A chunk of upload " + uploadId + " is being written; try again when it is done");
+        }
+        blobStore.discardUpload(uploadId);
+    }
+
+    @Scheduled(cron = "${app.attachments.gc.cron:0 30 3 * * *}")
+    public void expireUploads() {
+        if (!cleanupEnabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(expireAfter));
+        List<String> expired = jdbcTemplate.queryForList(DELETE_EXPIRED, String.class, cutoff);
+        expired.forEach(blobStore::discardUpload);
+        if (!expired.isEmpty()) {
+            log.info("Removed {} expired attachment uploads", expired.size());
+        }
+    }
+
+    // The file is hashed in full: chunks may have arrived over several requests and restarts
+    private AttachmentDTO complete(UploadSession session, String lease) {
+        AttachmentBlobStore.PendingBlob blob = blobStore.seal(blobStore.uploadFile(session.id()));
+        if (session.contentHash() != null && !session.contentHash().equals(blob.contentHash())) {
+            blobStore.discard(blob);
+            if (jdbcTemplate.update(DELETE_LEASED, session.id(), lease) == 1) {
+                blobStore.discardUpload(session.id());
+            }
+            throw new ConflictException("Upload " + session.id() + " does not match its declared sha256 "
+                    + "(received " + blob.contentHash() + "); start a new upload");
+        }
+        return attachmentService.attach(session.ticketId(), session.userId(), session.filename(),
+                session.contentType(), blob, () -> finishSession(session.id(), lease));
+    }
+
+    // In the attachment's transaction, so a failed attachment leaves the session to retry; the
+    // working file goes once the attachment has committed
+    private void finishSession(String uploadId, String lease) {
+        if (jdbcTemplate.update(DELETE_LEASED, uploadId, lease) == 0) {
+            throw lostLease(uploadId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                blobStore.discardUpload(uploadId);
+            }
+        });
+    }
+
+    private String claimLease(UploadSession session, long offset) {
+        String lease = UUID.randomUUID().toString();
+        if (jdbcTemplate.update(CLAIM_LEASE, lease, leaseDuration.toSeconds(), session.id(), offset) == 1) {
+            return lease;
+        }
+        if (offset != session.offset()) {
+            throw new ConflictException("Upload " + session.id() + " is at offset " + session.offset() + ", not " + offset);
+        }
+        throw new ConflictException("Another chunk of upload " + session.id() + " is being written");
+    }
+
+    // Extends the lease once a third of it has passed, so it outlives a chunk of any size
+    private Runnable leaseRenewal(String uploadId, String lease) {
+        long[] renewedAt = {System.nanoTime()};
+        return () -> {
+            long now = System.nanoTime();
+            if (now - renewedAt[0] < leaseDuration.toNanos() / 3) {
+                return;
+            }
+            if (jdbcTemplate.update(RENEW_LEASE, leaseDuration.toSeconds(), uploadId, lease) == 0) {
+                throw lostLease(uploadId);
+            }
+            renewedAt[0] = now;
+        };
+    }
+
+    // Hands the upload back at the offset reached without hiding what went wrong
+    private void releaseAfterFailure(UploadSession session, String lease, long reached, RuntimeException failure) {
+        try {
+            long offset = Math.max(session.offset(), Math.min(reached, session.size()));
+            jdbcTemplate.update(RELEASE_LEASE, offset, session.id(), lease);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static ConflictException lostLease(String uploadId) {
+        return new ConflictException("Upload " + uploadId + " was cancelled, expired or taken over while "
+                + "the chunk was written; check its offset");
+    }
+
+    // Only the user who started an upload can see or continue it
+    private UploadSession requireSession(Long ticketId, String uploadId) {
+        Long userId = principalCache.requireCurrent().id();
+        UploadSession session = jdbcTemplate.query(SELECT_UPLOAD, rs -> rs.next()
+                ? new UploadSession(rs.getString("id"), rs.getLong("ticket_id"), rs.getLong("user_id"),
+                        rs.getString("filename"), rs.getString("content_type"), rs.getLong("size"),
+                        rs.getString("content_hash"), rs.getLong("upload_offset"),
+                        rs.getTimestamp("updated_at").toLocalDateTime())
+                : null, uploadId);
+        if (session == null || !session.ticketId().equals(ticketId) || !session.userId().equals(userId)) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId);
+        }
+        return session;
+    }
+
+    // -1 when the working file is gone, which leaves the recorded offset as it was
+    private long fileLength(String uploadId) {
+        try {
+            return Files.size(blobStore.uploadFile(uploadId));
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // "sha256 <base64>", as in tus' checksum extension
+    private static byte[] parseChecksum(String uploadChecksum) {
+        if (uploadChecksum == null || uploadChecksum.isBlank()) {
+            return null;
+        }
+        String[] parts = uploadChecksum.trim().split("\\s+", 2);
+        if (parts.length != 2 || !parts[0].equalsIgnoreCase("sha256")) {
+            throw new BadRequestException("Upload-Checksum must be 'sha256 <base64 digest>'");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Upload-Checksum digest is not valid base64", e);
+        }
+    }
+
+    private AttachmentUploadDTO toDTO(UploadSession session) {
+        return AttachmentUploadDTO.builder()
+                .uploadId(session.id())
+                .ticketId(session.ticketId())
+                .filename(session.filename())
+                .contentType(session.contentType())
+                .size(session.size())
+                .offset(session.offset())
+                .contentHash(session.contentHash())
+                .expiresAt(session.updatedAt().plus(expireAfter))
+                .build();
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= 255 ? value : value.substring(0, 255);
+    }
+}
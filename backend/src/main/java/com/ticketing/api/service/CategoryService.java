@@ -15,10 +15,12 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ResourceRevisions revisions;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ResourceRevisions revisions) {
         this.categoryRepository = categoryRepository;
+        this.revisions = revisions;
     }
 
     public List<CategoryDTO> getAllCategories() {
@@ -58,6 +60,7 @@ public class CategoryService {
         
         Category category = convertToEntity(categoryDTO);
         Category savedCategory = categoryRepository.save(category);
+        revisions.categoriesChanged();
         return convertToDTO(savedCategory);
     }
 
@@ -77,6 +80,7 @@ public class CategoryService {
         existingCategory.setDescription(categoryDTO.getDescription());
         
         Category updatedCategory = categoryRepository.save(existingCategory);
+        revisions.categoriesChanged();
         return convertToDTO(updatedCategory);
     }
 
@@ -94,6 +98,7 @@ public class CategoryService {
         }
         
         categoryRepository.deleteById(id);
+        revisions.categoriesChanged();
     }
 
     private CategoryDTO convertToDTO(Category category) {
@@ -3,17 +3,14 @@ package com.ticketing.api.service;
 import com.ticketing.api.dto.CommentDTO;
 import com.ticketing.api.entity.Comment;
 import com.ticketing.api.entity.Ticket;
-import com.ticketing.api.entity.TicketHistory;
-import com.ticketing.api.entity.User;
+import com.ticketing.api.enums.Role;
 import com.ticketing.api.exception.ResourceNotFoundException;
 import com.ticketing.api.mapper.CommentMapper;
 import com.ticketing.api.repository.CommentRepository;
-import com.ticketing.api.repository.TicketHistoryRepository;
 import com.ticketing.api.repository.TicketRepository;
 import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,11 +24,27 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
-    private final TicketHistoryRepository ticketHistoryRepository;
+    private final TicketHistoryService ticketHistoryService;
     private final CommentMapper commentMapper;
     private final NotificationService notificationService;
+    private final LatencySketchService latencySketchService;
+    private final TicketSearchIndex searchIndex;
+    private final PrincipalCache principalCache;
+    private final TicketArchiveService archiveService;
+    private final ResourceRevisions revisions;
     
+    @Transactional(readOnly = true)
     public List<CommentDTO> getCommentsByTicketId(Long ticketId) {
+        List<CommentDTO> comments = findLiveComments(ticketId);
+        // A live ticket without comments has no rows either; only a missing ticket may be archived
+        if (comments.isEmpty() && !ticketRepository.existsById(ticketId)) {
+            return archiveService.findComments(ticketId).orElseGet(List::of);
+        }
+        return comments;
+    }
+
+    // The hot tables only; TicketService reads an archived ticket's comments with the ticket itself
+    List<CommentDTO> findLiveComments(Long ticketId) {
         return commentRepository.findByTicketIdOrderByCreatedAtAsc(ticketId).stream()
                 .map(commentMapper::toDTO)
                 .collect(Collectors.toList());
@@ -40,35 +53,48 @@ public class CommentService {
     @Transactional
     public CommentDTO createComment(CommentDTO commentDTO) {
         // Get current user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        PrincipalCache.CachedPrincipal currentUser = principalCache.requireCurrent();
         
         // Find ticket
         Ticket ticket = ticketRepository.findById(commentDTO.getTicketId())
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket", "id", commentDTO.getTicketId()));
         
+        // The first comment by anyone other than the creator counts as the first response
+        boolean firstResponse = ticket.getCreatedBy() != null
+                && !ticket.getCreatedBy().getId().equals(currentUser.id())
+                && !commentRepository.existsByTicketIdAndUserIdNot(ticket.getId(), ticket.getCreatedBy().getId());
+        
         // Set user ID
-        commentDTO.setUserId(currentUser.getId());
+        commentDTO.setUserId(currentUser.id());
         
         // Create comment
         Comment comment = commentMapper.toEntity(commentDTO);
         Comment savedComment = commentRepository.save(comment);
         
+        if (firstResponse) {
+            latencySketchService.recordFirstResponse(
+                    ticket.getPriority(),
+                    ticket.getCategory() != null ? ticket.getCategory().getId() : null,
+                    ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null,
+                    ticket.getCreatedAt(),
+                    savedComment.getCreatedAt());
+        }
+        
         // Create ticket history
-        createTicketHistory(ticket, currentUser, "COMMENT_ADDED");
+        ticketHistoryService.createTicketHistory(ticket, "comment", null, "added", currentUser.id());
+        searchIndex.reindexTicket(ticket.getId());
+        revisions.ticketChanged(ticket.getId());
         
         // Send notifications
         
         // Notify ticket creator if different from commenter
-        if (ticket.getCreatedBy() != null && !ticket.getCreatedBy().equals(currentUser)) {
+        if (ticket.getCreatedBy() != null && !ticket.getCreatedBy().getId().equals(currentUser.id())) {
             notificationService.createCommentNotification(ticket, ticket.getCreatedBy());
         }
         
         // Notify assignee if different from commenter and ticket creator
         if (ticket.getAssignedTo() != null && 
-                !ticket.getAssignedTo().equals(currentUser) && 
+                !ticket.getAssignedTo().getId().equals(currentUser.id()) && 
                 !ticket.getAssignedTo().equals(ticket.getCreatedBy())) {
             notificationService.createCommentNotification(ticket, ticket.getAssignedTo());
         }
@@ -79,33 +105,21 @@ public class CommentService {
     @Transactional
     public void deleteComment(Long id) {
         // Get current user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        PrincipalCache.CachedPrincipal currentUser = principalCache.requireCurrent();
         
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", id));
         
         // Check if user is the comment author or has admin rights
-        if (!comment.getUser().equals(currentUser) && 
-                !currentUser.getRoles().stream().anyMatch(role -> role.getName().name().equals("ROLE_ADMIN"))) {
+        if (!comment.getUser().getId().equals(currentUser.id()) && currentUser.role() != Role.ADMIN) {
             throw new IllegalStateException("You are not authorized to delete this comment");
         }
         
         // Create ticket history before deleting the comment
-        createTicketHistory(comment.getTicket(), currentUser, "COMMENT_DELETED");
+        ticketHistoryService.createTicketHistory(comment.getTicket(), "comment", "deleted", null, currentUser.id());
         
         commentRepository.delete(comment);
-    }
-    
-    private void createTicketHistory(Ticket ticket, User user, String action) {
-        TicketHistory history = TicketHistory.builder()
-                .ticket(ticket)
-                .user(user)
-                .action(action)
-                .build();
-        
-        ticketHistoryRepository.save(history);
+        searchIndex.reindexTicket(comment.getTicket().getId());
+        revisions.ticketChanged(comment.getTicket().getId());
     }
 }
\ No newline at end of file
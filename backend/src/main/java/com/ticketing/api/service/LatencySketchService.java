@@ -0,0 +1,336 @@
+package com.ticketing.api.service;
+
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import com.ticketing.api.dto.LatencyPercentilesDTO;
+import com.ticketing.api.entity.LatencySketch;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.repository.LatencySketchRepository;
+import com.ticketing.api.repository.TicketRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * p50/p90/p99 resolution and first-response latencies backed by t-digest sketches.
+ * <p>
+ * Each sketch covers one metric and one dimension value (overall, a category, a priority
+ * or an agent). Samples are added as tickets get resolved or receive their first response;
+ * they are an event stream, so a reopened ticket keeps its earlier sample. Sketches are
+ * persisted periodically and at shutdown, and reloaded at startup; the tickets table is only
+ * rescanned when nothing has been persisted yet.
+ * <p>
+ * Every instance records only the samples of its own writes. Persisting merges the samples
+ * taken since the last persist into the stored sketch under a row lock and adopts the merged
+ * result, so instances add up rather than overwrite each other, and each sees the others'
+ * samples within one persist interval. Samples that fail to persist are kept for the next try.
+ */
+@Service
+public class LatencySketchService {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencySketchService.class);
+
+    public static final String RESOLUTION = "resolution";
+    public static final String FIRST_RESPONSE = "response";
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final LatencySketchRepository sketchRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double compression;
+
+    private final Map<String, SketchHolder> sketches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LatencySketchService(
+            LatencySketchRepository sketchRepository,
+            TicketRepository ticketRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.stats.sketch-compression:100}") double compression) {
+        this.sketchRepository = sketchRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compression = compression;
+    }
+
+    public void recordResolution(Priority priority, Long categoryId, Long assigneeId,
+                                 LocalDateTime createdAt, LocalDateTime resolvedAt) {
+        record(RESOLUTION, priority, categoryId, assigneeId, createdAt, resolvedAt);
+    }
+
+    public void recordFirstResponse(Priority priority, Long categoryId, Long assigneeId,
+                                    LocalDateTime createdAt, LocalDateTime respondedAt) {
+        // Comments are written outside StatsService's after-commit hook, so defer here instead
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(FIRST_RESPONSE, priority, categoryId, assigneeId, createdAt, respondedAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(FIRST_RESPONSE, priority, categoryId, assigneeId, createdAt, respondedAt);
+            }
+        });
+    }
+
+    /**
+     * Returns the percentiles of one metric for every value of the given dimension
+     * ("overall", "category", "priority" or "agent"). Names are left for the caller to fill.
+     */
+    public List<LatencyPercentilesDTO> getPercentiles(String metric, String dimension) {
+        String prefix = metric + "|" + dimension + "|";
+        List<LatencyPercentilesDTO> result = new ArrayList<>();
+        sketches.forEach((key, holder) -> {
+            if (!key.startsWith(prefix)) {
+                return;
+            }
+            synchronized (holder) {
+                if (holder.digest.size() == 0) {
+                    return;
+                }
+                result.add(LatencyPercentilesDTO.builder()
+                        .dimension(dimension)
+                        .key(key.substring(prefix.length()))
+                        .sampleCount(holder.digest.size())
+                        .p50(toHours(holder.digest.quantile(0.50)))
+                        .p90(toHours(holder.digest.quantile(0.90)))
+                        .p99(toHours(holder.digest.quantile(0.99)))
+                        .build());
+            }
+        });
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        List<LatencySketch> persisted = sketchRepository.findAll();
+        if (persisted.isEmpty()) {
+            rebuild();
+            persisted = sketchRepository.findAll();
+        }
+        for (LatencySketch sketch : persisted) {
+            adopt(sketch.getKey(), decode(sketch));
+        }
+        log.info("Loaded {} latency sketches", persisted.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.sketch-persist-interval-ms:60000}",
+            initialDelayString = "${app.stats.sketch-persist-interval-ms:60000}")
+    public void persist() {
+        // Taken out of the holders first, so samples recorded while the transaction runs stay pending
+        Map<String, TDigest> pending = new HashMap<>();
+        sketches.forEach((key, holder) -> {
+            synchronized (holder) {
+                if (holder.pending.size() > 0) {
+                    pending.put(key, holder.pending);
+                    holder.pending = newDigest();
+                }
+            }
+        });
+
+        Map<String, TDigest> stored;
+        try {
+            stored = transactionTemplate.execute(status -> mergeIntoStored(pending));
+        } catch (RuntimeException e) {
+            pending.forEach((key, samples) -> {
+                SketchHolder holder = sketches.get(key);
+                synchronized (holder) {
+                    samples.add(holder.pending);
+                    holder.pending = samples;
+                }
+            });
+            log.warn("Failed to persist {} latency sketches; keeping their samples for the next run", pending.size(), e);
+            return;
+        }
+
+        stored.forEach(this::adopt);
+        if (!pending.isEmpty()) {
+            log.debug("Persisted {} latency sketches", pending.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persist();
+    }
+
+    // Merges the pending samples into the stored sketches, locking their rows in key order so
+    // concurrent instances cannot deadlock, and returns every stored sketch, those of other
+    // instances included
+    private Map<String, TDigest> mergeIntoStored(Map<String, TDigest> pending) {
+        if (!pending.isEmpty()) {
+            Map<String, LatencySketch> rows = new HashMap<>();
+            for (LatencySketch row : sketchRepository.findAllForUpdate(pending.keySet())) {
+                rows.put(row.getKey(), row);
+            }
+            List<LatencySketch> updated = new ArrayList<>();
+            pending.forEach((key, samples) -> {
+                LatencySketch row = rows.get(key);
+                TDigest stored = row != null ? decode(row) : newDigest();
+                stored.add(samples);
+                updated.add(new LatencySketch(key, encode(stored), LocalDateTime.now()));
+            });
+            sketchRepository.saveAll(updated);
+        }
+        Map<String, TDigest> stored = new HashMap<>();
+        for (LatencySketch row : sketchRepository.findAll()) {
+            stored.put(row.getKey(), decode(row));
+        }
+        return stored;
+    }
+
+    // The stored sketch plus the samples not yet merged into it becomes what percentiles are read from
+    private void adopt(String key, TDigest stored) {
+        sketches.compute(key, (k, holder) -> {
+            if (holder == null) {
+                return new SketchHolder(stored, newDigest());
+            }
+            synchronized (holder) {
+                stored.add(holder.pending);
+                holder.digest = stored;
+            }
+            return holder;
+        });
+    }
+
+    // Full rescan of the tickets table, only needed when no sketches have been persisted. Another
+    // instance starting at the same time may have stored its rebuild first; that one is kept
+    private void rebuild() {
+        long start = System.nanoTime();
+        Map<String, TDigest> rebuilt = new HashMap<>();
+
+        long afterId = 0L;
+        List<Object[]> rows;
+        do {
+            rows = ticketRepository.findResolutionSamples(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                record(RESOLUTION, (Priority) row[1], (Long) row[2], (Long) row[3],
+                        (LocalDateTime) row[4], (LocalDateTime) row[5],
+                        (key, seconds) -> rebuilt.computeIfAbsent(key, k -> newDigest()).add(seconds));
+            }
+        } while (rows.size() == REBUILD_BATCH_SIZE);
+
+        afterId = 0L;
+        do {
+            rows = ticketRepository.findFirstResponseSamples(afterId, REBUILD_BATCH_SIZE);
+            for (Object[] row : rows) {
+                afterId = ((Number) row[0]).longValue();
+                record(FIRST_RESPONSE,
+                        Priority.valueOf((String) row[1]),
+                        row[2] != null ? ((Number) row[2]).longValue() : null,
+                        row[3] != null ? ((Number) row[3]).longValue() : null,
+                        toLocalDateTime(row[4]),
+                        toLocalDateTime(row[5]),
+                        (key, seconds) -> rebuilt.computeIfAbsent(key, k -> newDigest()).add(seconds));
+            }
+        } while (rows.size() == REBUILD_BATCH_SIZE);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (sketchRepository.count() == 0) {
+                    List<LatencySketch> stored = new ArrayList<>();
+                    rebuilt.forEach((key, digest) -> stored.add(new LatencySketch(key, encode(digest), LocalDateTime.now())));
+                    sketchRepository.saveAll(stored);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Latency sketches were rebuilt by another instance first; using those");
+            return;
+        }
+        log.info("Rebuilt latency sketches from the database in {} ms",
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void record(String metric, Priority priority, Long categoryId, Long assigneeId,
+                        LocalDateTime from, LocalDateTime to) {
+        record(metric, priority, categoryId, assigneeId, from, to, this::add);
+    }
+
+    private static void record(String metric, Priority priority, Long categoryId, Long assigneeId,
+                               LocalDateTime from, LocalDateTime to, ObjDoubleConsumer<String> sink) {
+        if (from == null || to == null) {
+            return;
+        }
+        double seconds = Math.max(0, Duration.between(from, to).getSeconds());
+
+        sink.accept(metric + "|overall|all", seconds);
+        if (priority != null) {
+            sink.accept(metric + "|priority|" + priority.name(), seconds);
+        }
+        if (categoryId != null) {
+            sink.accept(metric + "|category|" + categoryId, seconds);
+        }
+        if (assigneeId != null) {
+            sink.accept(metric + "|agent|" + assigneeId, seconds);
+        }
+    }
+
+    private void add(String key, double seconds) {
+        SketchHolder holder = sketches.computeIfAbsent(key, k -> new SketchHolder(newDigest(), newDigest()));
+        synchronized (holder) {
+            holder.digest.add(seconds);
+            holder.pending.add(seconds);
+        }
+    }
+
+    private TDigest newDigest() {
+        return TDigest.createMergingDigest(compression);
+    }
+
+    private static TDigest decode(LatencySketch sketch) {
+        return MergingDigest.fromBytes(ByteBuffer.wrap(sketch.getData()));
+    }
+
+    private static byte[] encode(TDigest digest) {
+        ByteBuffer buffer = ByteBuffer.allocate(digest.byteSize());
+        digest.asBytes(buffer);
+        return buffer.array();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static Double toHours(double seconds) {
+        return seconds / 3600.0;
+    }
+
+    // t-digest is not thread-safe; every access goes through the holder's monitor. digest is what
+    // the percentiles are read from; pending holds the samples not yet merged into the stored sketch
+    private static class SketchHolder {
+        TDigest digest;
+        TDigest pending;
+
+        SketchHolder(TDigest digest, TDigest pending) {
+            this.digest = digest;
+            this.pending = pending;
+        }
+    }
+}
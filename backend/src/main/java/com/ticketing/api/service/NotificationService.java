@@ -8,14 +8,19 @@ import com.ticketing.api.exception.ResourceNotFoundException;
 import com.ticketing.api.mapper.NotificationMapper;
 import com.ticketing.api.repository.NotificationRepository;
 import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,14 +28,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class NotificationService {
     
+    private static final LocalDateTime KEEP_ALL = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final NotificationMapper notificationMapper;
+    private final PrincipalCache principalCache;
+    private final NotificationStreamService notificationStreamService;
+    private final PlatformTransactionManager transactionManager;
+    
+    // Older notifications are retired with their partition (see PartitionMaintenanceService);
+    // every lookup is bounded to the retention window so the other partitions are pruned
+    @Value("${app.retention.notification-months:6}")
+    private int retentionMonths;
     
     public List<NotificationDTO> getAllNotificationsForCurrentUser() {
         User currentUser = getCurrentUser();
         
-        return notificationRepository.findByUserOrderByCreatedAtDesc(currentUser).stream()
+        return notificationRepository.findByUserCreatedBetween(currentUser, windowStart(), windowEnd()).stream()
                 .map(notificationMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -38,14 +53,14 @@ public class NotificationService {
     public Page<NotificationDTO> getNotificationsForCurrentUserPaginated(Pageable pageable) {
         User currentUser = getCurrentUser();
         
-        return notificationRepository.findByUserOrderByCreatedAtDesc(currentUser, pageable)
+        return notificationRepository.findByUserCreatedBetween(currentUser, windowStart(), windowEnd(), pageable)
                 .map(notificationMapper::toDTO);
     }
     
     public List<NotificationDTO> getUnreadNotificationsForCurrentUser() {
         User currentUser = getCurrentUser();
         
-        return notificationRepository.findByUserAndReadOrderByCreatedAtDesc(currentUser, false).stream()
+        return notificationRepository.findByUserAndReadCreatedBetween(currentUser, false, windowStart(), windowEnd()).stream()
                 .map(notificationMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -54,7 +69,9 @@ public class NotificationService {
     public NotificationDTO markNotificationAsRead(Long id) {
         User currentUser = getCurrentUser();
         
-        Notification notification = notificationRepository.findById(id)
+        LocalDateTime from = windowStart();
+        LocalDateTime to = windowEnd();
+        Notification notification = notificationRepository.findByIdCreatedBetween(id, from, to)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", id));
         
         // Ensure notification belongs to current user
@@ -62,22 +79,29 @@ public class NotificationService {
             throw new IllegalStateException("Cannot mark notification as read: notification does not belong to current user");
         }
         
-        notification.setRead(true);
-        Notification savedNotification = notificationRepository.save(notification);
+        // A bounded update rather than saving the entity: Hibernate's update by id alone would
+        // visit every partition
+        NotificationDTO notificationDTO = notificationMapper.toDTO(notification);
+        if (!notification.isRead()) {
+            notificationRepository.markAsRead(id, from, to);
+            notificationStreamService.publishUnreadDelta(currentUser.getId(), -1);
+        }
+        notificationDTO.setRead(true);
         
-        return notificationMapper.toDTO(savedNotification);
+        return notificationDTO;
     }
     
     @Transactional
     public void markAllNotificationsAsRead() {
         User currentUser = getCurrentUser();
-        notificationRepository.markAllAsRead(currentUser.getId());
+        notificationRepository.markAllAsRead(currentUser.getId(), windowStart(), windowEnd());
+        notificationStreamService.publishUnreadCount(currentUser.getId(), 0);
     }
     
     @Transactional
     public long getUnreadNotificationCount() {
         User currentUser = getCurrentUser();
-        return notificationRepository.countByUserAndRead(currentUser, false);
+        return notificationRepository.countByUserAndReadCreatedBetween(currentUser, false, windowStart(), windowEnd());
     }
     
     @Transactional
@@ -90,8 +114,7 @@ public class NotificationService {
                 .read(false)
                 .build();
         
-        Notification savedNotification = notificationRepository.save(notification);
-        return notificationMapper.toDTO(savedNotification);
+        return saveAndPublish(notification);
     }
     
     @Transactional
@@ -104,8 +127,7 @@ public class NotificationService {
                 .read(false)
                 .build();
         
-        Notification savedNotification = notificationRepository.save(notification);
-        return notificationMapper.toDTO(savedNotification);
+        return saveAndPublish(notification);
     }
     
     @Transactional
@@ -118,14 +140,41 @@ public class NotificationService {
                 .read(false)
                 .build();
         
+        return saveAndPublish(notification);
+    }
+    
+    // Opens a push stream for the current user, starting with the current unread count. The count
+    // runs in its own short transaction, so its connection is back in the pool before the stream,
+    // which stays open for up to the stream timeout, is returned
+    public SseEmitter subscribeCurrentUser() {
+        Long userId = principalCache.requireCurrent().id();
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        Long unreadCount = readOnlyTransaction.execute(status -> notificationRepository.countByUserAndReadCreatedBetween(
+                userRepository.getReferenceById(userId), false, windowStart(), windowEnd()));
+        return notificationStreamService.subscribe(userId, unreadCount);
+    }
+    
+    private NotificationDTO saveAndPublish(Notification notification) {
         Notification savedNotification = notificationRepository.save(notification);
-        return notificationMapper.toDTO(savedNotification);
+        NotificationDTO notificationDTO = notificationMapper.toDTO(savedNotification);
+        notificationStreamService.publishNotification(notificationDTO);
+        return notificationDTO;
+    }
+    
+    // Start of the oldest month still kept, as PartitionMaintenanceService counts it; 0 keeps everything
+    private LocalDateTime windowStart() {
+        return retentionMonths > 0 ? YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay() : KEEP_ALL;
+    }
+    
+    // Skips the empty partitions created ahead of time; the day of slack covers clocks that differ
+    // between instances
+    private static LocalDateTime windowEnd() {
+        return LocalDateTime.now().plusDays(1);
     }
     
+    // Resolved through the principal cache; the returned reference is an uninitialized proxy
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        return userRepository.getReferenceById(principalCache.requireCurrent().id());
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.dto.NotificationDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of open Server-Sent Events streams, keyed by user id, used to push notifications
+ * and unread-count changes instead of having clients poll.
+ * <p>
+ * An idle stream is an async servlet response with no thread attached, so open connections
+ * cost only their socket and an emitter. Events are published after the notification's
+ * transaction commits and written on a small dispatch pool, so a slow client never holds a
+ * database transaction open. Streams that fail a write or the periodic heartbeat are dropped.
+ * <p>
+ * Event names: {@code notification} (a {@link NotificationDTO}), {@code unread-delta} (a signed
+ * change to the unread count) and {@code unread-count} (the absolute unread count).
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_DELTA_EVENT = "unread-delta";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final long timeoutMs;
+
+    @Autowired
+    public NotificationStreamService(
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.notifications.stream.dispatch-threads:4}") int dispatchThreads) {
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("notifications.streams.open", openStreams, AtomicInteger::get)
+                .description("Open notification SSE streams")
+                .register(meterRegistry);
+    }
+
+    // The client reconnects on timeout (EventSource does so automatically)
+    public SseEmitter subscribe(Long userId, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        openStreams.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        send(userId, emitter, SseEmitter.event().name(UNREAD_COUNT_EVENT).data(unreadCount));
+        return emitter;
+    }
+
+    public void publishNotification(NotificationDTO notification) {
+        Long userId = notification.getUserId();
+        afterCommit(() -> {
+            broadcast(userId, SseEmitter.event()
+                    .name(NOTIFICATION_EVENT)
+                    .id(String.valueOf(notification.getId()))
+                    .data(notification, MediaType.APPLICATION_JSON));
+            broadcast(userId, SseEmitter.event().name(UNREAD_DELTA_EVENT).data(1));
+        });
+    }
+
+    public void publishUnreadDelta(Long userId, long delta) {
+        afterCommit(() -> broadcast(userId, SseEmitter.event().name(UNREAD_DELTA_EVENT).data(delta)));
+    }
+
+    public void publishUnreadCount(Long userId, long count) {
+        afterCommit(() -> broadcast(userId, SseEmitter.event().name(UNREAD_COUNT_EVENT).data(count)));
+    }
+
+    // Keeps proxies from closing idle streams and weeds out clients that went away silently.
+    // Written on the dispatch pool like any other event, so one stalled client cannot hold up
+    // the scheduler thread and every other scheduled job with it.
+    @Scheduled(fixedDelayString = "${app.notifications.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        SseEmitter.SseEventBuilder keepAlive = SseEmitter.event().comment("keep-alive");
+        subscribers.keySet().forEach(userId -> broadcast(userId, keepAlive));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    private void broadcast(Long userId, SseEmitter.SseEventBuilder event) {
+        Set<SseEmitter> emitters = subscribers.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            dispatcher.execute(() -> send(userId, emitter, event));
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping notification stream for user {}: {}", userId, e.getMessage());
+            unsubscribe(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        Set<SseEmitter> emitters = subscribers.get(userId);
+        if (emitters != null && emitters.remove(emitter)) {
+            openStreams.decrementAndGet();
+            subscribers.computeIfPresent(userId, (id, current) -> current.isEmpty() ? null : current);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.ticketing.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the monthly partitions of {@code ticket_history} and {@code notifications} (see the V3
+ * migration) in shape: creates the next few months ahead of time and retires partitions older
+ * than the retention period as a whole, by detaching them and then dropping them or leaving them
+ * as standalone tables for archiving. No row-by-row deletes.
+ * <p>
+ * Partitions are detached {@code CONCURRENTLY}, so writes to the parent carry on meanwhile. That
+ * cannot run inside a transaction block, and none is open here. A detached table keeps no foreign
+ * keys, or it would block deleting and archiving the tickets and users it mentions.
+ */
+@Service
+@ConditionalOnProperty(name = "app.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM", Locale.ROOT);
+
+    // inhdetachpending: a concurrent detach that was interrupted, to be completed with FINALIZE
+    private static final String LIST_PARTITIONS =
+            "SELECT c.relname, i.inhdetachpending FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? ORDER BY c.relname";
+
+    // Detached partitions still carrying the foreign keys they were created with
+    private static final String DETACHED_FOREIGN_KEYS =
+            "SELECT c.relname, k.conname FROM pg_class c JOIN pg_constraint k ON k.conrelid = c.oid " +
+            "WHERE c.relname LIKE ? AND c.relkind = 'r' AND NOT c.relispartition AND k.contype = 'f'";
+
+    public enum RetentionMode {
+        // Detach and drop the partition
+        DROP,
+        // Detach only; the partition stays as a standalone table for an external archive job
+        DETACH
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int historyRetentionMonths;
+    private final int notificationRetentionMonths;
+    private final RetentionMode retentionMode;
+
+    @Autowired
+    public PartitionMaintenanceService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${app.retention.ticket-history-months:24}") int historyRetentionMonths,
+            @Value("${app.retention.notification-months:6}") int notificationRetentionMonths,
+            @Value("${app.retention.mode:drop}") String retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.historyRetentionMonths = historyRetentionMonths;
+        this.notificationRetentionMonths = notificationRetentionMonths;
+        this.retentionMode = RetentionMode.valueOf(retentionMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        createUpcoming("ticket_history");
+        createUpcoming("notifications");
+        retire("ticket_history", historyRetentionMonths);
+        retire("notifications", notificationRetentionMonths);
+    }
+
+    private void createUpcoming(String table) {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            jdbcTemplate.queryForObject("SELECT ensure_monthly_partition(?, ?)", String.class, table, monthStart);
+        }
+    }
+
+    // A partition is retired once every row in it is older than the retention period; 0 keeps everything
+    private void retire(String table, int retentionMonths) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        String prefix = table + "_p";
+
+        List<Partition> partitions = jdbcTemplate.query(LIST_PARTITIONS,
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getBoolean(2)), table);
+        for (Partition partition : partitions) {
+            if (!partition.name().startsWith(prefix)) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(partition.name().substring(prefix.length()), PARTITION_SUFFIX);
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name()
+                    + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+            if (retentionMode == RetentionMode.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                log.info("Dropped expired partition {} of {}", partition.name(), table);
+            } else {
+                log.info("Detached expired partition {} of {}; archive and drop it when done", partition.name(), table);
+            }
+        }
+        if (retentionMode == RetentionMode.DETACH) {
+            dropForeignKeys(prefix);
+        }
+    }
+
+    // Also catches tables detached before this was done, or by a run that failed in between
+    private void dropForeignKeys(String prefix) {
+        List<String[]> foreignKeys = jdbcTemplate.query(DETACHED_FOREIGN_KEYS,
+                (rs, rowNum) -> new String[] {rs.getString(1), rs.getString(2)}, prefix + "%");
+        for (String[] foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + foreignKey[0] + " DROP CONSTRAINT \"" + foreignKey[1] + "\"");
+            log.info("Dropped foreign key {} of detached partition {}", foreignKey[1], foreignKey[0]);
+        }
+    }
+
+    private record Partition(String name, boolean detachPending) {
+    }
+}
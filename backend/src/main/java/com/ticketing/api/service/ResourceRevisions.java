@@ -0,0 +1,150 @@
+package com.ticketing.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory revisions behind the ETags of ticket, category and stats responses, so a conditional
+ * GET whose ETag still matches is answered with 304 before any query runs.
+ * <p>
+ * Writes bump revisions once their transaction commits: a ticket's own revision covers its row,
+ * comments, attachments and history, and counters for the ticket list, categories and users
+ * cover the collections and the names denormalized into ticket responses. Callers take the ETag
+ * before loading the data it describes, so a write racing a read can only cost a 304, never
+ * produce a stale one.
+ * <p>
+ * Ticket revisions are kept for tickets written since the last prune but one; a ticket without
+ * an entry reports the floor left by the prune, which is at least its last revision, so a value
+ * is never reused for different content. The epoch, fixed at startup, makes a restart invalidate
+ * all earlier ETags. Only writes made by this process are seen, so ETags are opt-in
+ * ({@code app.etag.enabled}) for single-instance deployments. They stay off while read-only
+ * transactions go to a replica ({@code app.datasource.replica.enabled}): a revision bumped on
+ * the primary's commit could be paired with a body read from a replica that has not replayed it.
+ */
+@Service
+public class ResourceRevisions {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceRevisions.class);
+
+    private final boolean enabled;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong ticketList = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+
+    // Source of ticket revisions; shared so that a pruned ticket can fall back to the floor
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Long, Long> ticketRevisions = new ConcurrentHashMap<>();
+    private volatile long ticketFloor;
+    // Clock value at the previous prune; only touched by the scheduler thread
+    private long pruneMark;
+
+    @Autowired
+    public ResourceRevisions(
+            @Value("${app.etag.enabled:false}") boolean enabled,
+            @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        if (enabled && replicaEnabled) {
+            log.warn("app.etag.enabled is ignored while app.datasource.replica.enabled is set; ETags are off");
+        }
+        this.enabled = enabled && !replicaEnabled;
+    }
+
+    // GET /tickets/{id}, whatever is expanded
+    public String ticketETag(Long ticketId) {
+        return etag("t" + ticketRevision(ticketId), "c" + categories.get(), "u" + users.get());
+    }
+
+    // The ticket list endpoints
+    public String ticketListETag() {
+        return etag("l" + ticketList.get(), "c" + categories.get(), "u" + users.get());
+    }
+
+    public String categoryListETag() {
+        return etag("c" + categories.get());
+    }
+
+    // Category responses that include ticket counts
+    public String categoryCountsETag() {
+        return etag("c" + categories.get(), "l" + ticketList.get());
+    }
+
+    public String statsETag(long statsRevision) {
+        return etag("s" + statsRevision);
+    }
+
+    public void ticketChanged(Long ticketId) {
+        ticketsChanged(List.of(ticketId));
+    }
+
+    // Also moves the ticket list on: created, updated, deleted and archived tickets all show there
+    public void ticketsChanged(Collection<Long> ticketIds) {
+        List<Long> ids = List.copyOf(ticketIds);
+        afterCommit(() -> {
+            for (Long id : ids) {
+                ticketRevisions.merge(id, clock.incrementAndGet(), Math::max);
+            }
+            ticketList.incrementAndGet();
+        });
+    }
+
+    // For tickets that are new, which have no ETag to invalidate yet
+    public void ticketListChanged() {
+        afterCommit(ticketList::incrementAndGet);
+    }
+
+    public void categoriesChanged() {
+        afterCommit(categories::incrementAndGet);
+    }
+
+    public void usersChanged() {
+        afterCommit(users::incrementAndGet);
+    }
+
+    // Drops revisions not bumped for a whole interval; the floor goes up first, so a concurrent
+    // reader that misses the entry already sees a value at least as high
+    @Scheduled(fixedDelayString = "${app.etag.prune-interval-ms:3600000}")
+    public void pruneTicketRevisions() {
+        long mark = pruneMark;
+        pruneMark = clock.get();
+        if (mark > ticketFloor) {
+            ticketFloor = mark;
+            ticketRevisions.values().removeIf(revision -> revision <= mark);
+        }
+    }
+
+    private long ticketRevision(Long ticketId) {
+        Long revision = ticketRevisions.get(ticketId);
+        return revision != null ? revision : ticketFloor;
+    }
+
+    private String etag(String... parts) {
+        return enabled ? "\"" + epoch + "-" + String.join(".", parts) + "\"" : null;
+    }
+
+    // Bumping earlier would let a read of the old data pick up the new ETag
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+}
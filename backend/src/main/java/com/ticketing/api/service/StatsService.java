@@ -0,0 +1,542 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.dto.LatencyPercentilesDTO;
+import com.ticketing.api.dto.StatsDTO;
+import com.ticketing.api.entity.Ticket;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.repository.TicketRepository;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ticket statistics served from in-memory counters.
+ * <p>
+ * The counters are loaded once at startup, kept up to date by {@link #recordTicketChange}
+ * (called by {@link TicketService} after every ticket write commits) and periodically
+ * rebuilt from the database to correct any drift. Tickets moved to {@code ticket_archive} by
+ * {@link TicketArchiveService} keep counting; archiving leaves the counters as they are.
+ */
+@Service
+public class StatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsService.class);
+
+    private final TicketRepository ticketRepository;
+    private final LatencySketchService latencySketchService;
+    private final TransactionTemplate reconcileTransaction;
+
+    // Swapped atomically by reconcile(); incremental updates go to whichever instance is current
+    private volatile Aggregates aggregates = new Aggregates();
+    // Moves on after every change to the counters; the ETag of GET /stats
+    private final AtomicLong revision = new AtomicLong();
+
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> agentNames = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StatsService(TicketRepository ticketRepository, LatencySketchService latencySketchService,
+                        PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.latencySketchService = latencySketchService;
+        // Opened here rather than by @Transactional, so the startup load, which calls reconcile()
+        // on this instance, gets it too. One snapshot for the hot and archived queries, so a
+        // ticket archived meanwhile counts once
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setReadOnly(true);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Read before getOverallStats, so the counters it returns are at least this recent
+    public long getRevision() {
+        return revision.get();
+    }
+
+    public StatsDTO getOverallStats() {
+        Aggregates current = aggregates;
+
+        StatsDTO stats = new StatsDTO();
+        stats.setTotalTickets(current.total.sum());
+        stats.setOpenTickets(sum(current.byStatus, Status.OPEN));
+        stats.setInProgressTickets(sum(current.byStatus, Status.IN_PROGRESS));
+        stats.setResolvedTickets(sum(current.byStatus, Status.RESOLVED));
+        stats.setClosedTickets(sum(current.byStatus, Status.CLOSED));
+        stats.setHighPriorityCount(sum(current.byPriority, Priority.HIGH));
+        stats.setMediumPriorityCount(sum(current.byPriority, Priority.MEDIUM));
+        stats.setLowPriorityCount(sum(current.byPriority, Priority.LOW));
+        stats.setAvgResponseTime(averageDuration(current.responseSeconds, current.responseCount));
+        stats.setAvgResolutionTime(averageDuration(current.resolutionSeconds, current.resolutionCount));
+
+        long total = current.total.sum();
+        List<StatsDTO.CategoryStatsDTO> categoriesStats = new ArrayList<>();
+        current.byCategory.forEach((categoryId, count) -> {
+            long ticketCount = count.sum();
+            if (ticketCount > 0) {
+                double percentage = total > 0 ? (ticketCount * 100.0) / total : 0.0;
+                categoriesStats.add(new StatsDTO.CategoryStatsDTO(
+                        categoryId, categoryNames.get(categoryId), ticketCount, percentage));
+            }
+        });
+        stats.setCategoriesStats(categoriesStats);
+
+        List<StatsDTO.AgentStatsDTO> agentStats = new ArrayList<>();
+        current.byAgent.forEach((agentId, count) -> {
+            long assigned = count.sum();
+            if (assigned > 0) {
+                agentStats.add(new StatsDTO.AgentStatsDTO(
+                        agentId, agentNames.get(agentId), assigned, sum(current.resolvedByAgent, agentId), null));
+            }
+        });
+        stats.setAgentStats(agentStats);
+
+        stats.setTicketsCreatedByMonth(lastMonths(current.createdByMonth, 12));
+        stats.setTicketsResolvedByMonth(lastMonths(current.resolvedByMonth, 12));
+
+        return stats;
+    }
+
+    @Transactional(readOnly = true)
+    public StatsDTO getStatsByDateRange(LocalDate startDate, LocalDate endDate) {
+        // Arbitrary ranges don't line up with the in-memory buckets, so these go to the database
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay().minusNanos(1);
+
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        for (Object[] row : ticketRepository.countGroupedByStatusCreatedBetween(start, end)) {
+            byStatus.put((Status) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        for (Object[] row : ticketRepository.countGroupedByPriorityCreatedBetween(start, end)) {
+            byPriority.put((Priority) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<String, Long> byMonth = new LinkedHashMap<>();
+        for (Object[] row : ticketRepository.getTicketCountByMonth(start, end)) {
+            YearMonth month = YearMonth.of(((Number) row[1]).intValue(), ((Number) row[0]).intValue());
+            byMonth.put(month.toString(), ((Number) row[2]).longValue());
+        }
+
+        // Archived tickets are all closed; the months merge into the hot ones in calendar order
+        long total = ticketRepository.countTicketsCreatedBetween(start, end);
+        Map<YearMonth, Long> archivedByMonth = new TreeMap<>();
+        for (Object[] row : ticketRepository.countArchivedCreatedBetween(start, end)) {
+            long count = ((Number) row[3]).longValue();
+            total += count;
+            byStatus.merge(Status.CLOSED, count, Long::sum);
+            if (row[0] != null) {
+                byPriority.merge(Priority.valueOf((String) row[0]), count, Long::sum);
+            }
+            archivedByMonth.merge(YearMonth.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue()),
+                    count, Long::sum);
+        }
+        if (!archivedByMonth.isEmpty()) {
+            Map<YearMonth, Long> merged = new TreeMap<>(archivedByMonth);
+            byMonth.forEach((month, count) -> merged.merge(YearMonth.parse(month), count, Long::sum));
+            byMonth.clear();
+            merged.forEach((month, count) -> byMonth.put(month.toString(), count));
+        }
+
+        return StatsDTO.builder()
+                .totalTickets(total)
+                .openTickets(byStatus.getOrDefault(Status.OPEN, 0L))
+                .inProgressTickets(byStatus.getOrDefault(Status.IN_PROGRESS, 0L))
+                .resolvedTickets(byStatus.getOrDefault(Status.RESOLVED, 0L))
+                .closedTickets(byStatus.getOrDefault(Status.CLOSED, 0L))
+                .highPriorityCount(byPriority.getOrDefault(Priority.HIGH, 0L))
+                .mediumPriorityCount(byPriority.getOrDefault(Priority.MEDIUM, 0L))
+                .lowPriorityCount(byPriority.getOrDefault(Priority.LOW, 0L))
+                .ticketsCreatedByMonth(byMonth)
+                .build();
+    }
+
+    public Map<String, Long> getTicketCountByCategory() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        aggregates.byCategory.forEach((categoryId, count) -> {
+            long ticketCount = count.sum();
+            if (ticketCount > 0) {
+                result.put(categoryNames.getOrDefault(categoryId, String.valueOf(categoryId)), ticketCount);
+            }
+        });
+        return result;
+    }
+
+    public Map<String, Long> getTicketCountByStatus() {
+        Aggregates current = aggregates;
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Status status : Status.values()) {
+            result.put(status.name(), sum(current.byStatus, status));
+        }
+        return result;
+    }
+
+    public Map<String, Long> getTicketCountByPriority() {
+        Aggregates current = aggregates;
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Priority priority : Priority.values()) {
+            result.put(priority.name(), sum(current.byPriority, priority));
+        }
+        return result;
+    }
+
+    public Map<String, Long> getTicketCountByAgent() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        aggregates.byAgent.forEach((agentId, count) -> {
+            long assigned = count.sum();
+            if (assigned > 0) {
+                result.put(agentNames.getOrDefault(agentId, String.valueOf(agentId)), assigned);
+            }
+        });
+        return result;
+    }
+
+    public Map<String, Long> getTicketCountByMonth(Integer months) {
+        return lastMonths(aggregates.createdByMonth, months);
+    }
+
+    // Average time to first comment, in hours, per priority plus an "overall" entry
+    public Map<String, Double> getAverageResponseTimes() {
+        Aggregates current = aggregates;
+        return averageHours(current.responseSecondsByPriority, current.responseCountByPriority,
+                current.responseSeconds, current.responseCount);
+    }
+
+    // Average time from creation to resolution, in hours, per priority plus an "overall" entry
+    public Map<String, Double> getAverageResolutionTimes() {
+        Aggregates current = aggregates;
+        return averageHours(current.resolutionSecondsByPriority, current.resolutionCountByPriority,
+                current.resolutionSeconds, current.resolutionCount);
+    }
+
+    public List<LatencyPercentilesDTO> getResponseTimePercentiles(String groupBy) {
+        return withNames(latencySketchService.getPercentiles(LatencySketchService.FIRST_RESPONSE, groupBy));
+    }
+
+    public List<LatencyPercentilesDTO> getResolutionTimePercentiles(String groupBy) {
+        return withNames(latencySketchService.getPercentiles(LatencySketchService.RESOLUTION, groupBy));
+    }
+
+    /**
+     * Applies the difference between two states of a ticket to the counters once the
+     * surrounding transaction commits. Pass {@code null} as {@code before} for a new ticket
+     * and as {@code after} for a deleted one.
+     */
+    public void recordTicketChange(TicketSnapshot before, TicketSnapshot after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChange(before, after);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyChange(before, after);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        Aggregates fresh = reconcileTransaction.execute(status -> loadAggregates());
+
+        // Changes committed while the queries were running are only picked up on the next
+        // pass; the window is short and the counters self-correct.
+        aggregates = fresh;
+        revision.incrementAndGet();
+        log.debug("Ticket statistics reconciled in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private Aggregates loadAggregates() {
+        Aggregates fresh = new Aggregates();
+
+        for (Object[] row : ticketRepository.countGroupedByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            counter(fresh.byStatus, (Status) row[0]).add(count);
+            fresh.total.add(count);
+        }
+        for (Object[] row : ticketRepository.countGroupedByPriority()) {
+            counter(fresh.byPriority, (Priority) row[0]).add(((Number) row[1]).longValue());
+        }
+        for (Object[] row : ticketRepository.countArchivedGroupedByPriority()) {
+            long count = ((Number) row[1]).longValue();
+            counter(fresh.byStatus, Status.CLOSED).add(count);
+            fresh.total.add(count);
+            if (row[0] != null) {
+                counter(fresh.byPriority, Priority.valueOf((String) row[0])).add(count);
+            }
+        }
+        addCategories(fresh, ticketRepository.countGroupedByCategory());
+        addCategories(fresh, ticketRepository.countArchivedGroupedByCategory());
+        for (Object[] row : ticketRepository.countGroupedByAssignee(Status.RESOLVED)) {
+            Long agentId = addAgent(fresh, row);
+            counter(fresh.resolvedByAgent, agentId).add(((Number) row[4]).longValue());
+        }
+        for (Object[] row : ticketRepository.countArchivedGroupedByAssignee()) {
+            addAgent(fresh, row);
+        }
+        addMonths(fresh.createdByMonth, ticketRepository.countGroupedByCreatedMonth());
+        addMonths(fresh.createdByMonth, ticketRepository.countArchivedGroupedByCreatedMonth());
+        addMonths(fresh.resolvedByMonth, ticketRepository.countGroupedByResolvedMonth());
+        addMonths(fresh.resolvedByMonth, ticketRepository.countArchivedGroupedByResolvedMonth());
+        addDurations(fresh.resolutionCountByPriority, fresh.resolutionSecondsByPriority,
+                fresh.resolutionCount, fresh.resolutionSeconds,
+                ticketRepository.sumResolutionSecondsGroupedByPriority());
+        addDurations(fresh.resolutionCountByPriority, fresh.resolutionSecondsByPriority,
+                fresh.resolutionCount, fresh.resolutionSeconds,
+                ticketRepository.sumArchivedResolutionSecondsGroupedByPriority());
+        addDurations(fresh.responseCountByPriority, fresh.responseSecondsByPriority,
+                fresh.responseCount, fresh.responseSeconds,
+                ticketRepository.sumFirstResponseSecondsGroupedByPriority());
+        addDurations(fresh.responseCountByPriority, fresh.responseSecondsByPriority,
+                fresh.responseCount, fresh.responseSeconds,
+                ticketRepository.sumArchivedFirstResponseSecondsGroupedByPriority());
+        return fresh;
+    }
+
+    // Rows of category id, name, count
+    private void addCategories(Aggregates fresh, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long categoryId = ((Number) row[0]).longValue();
+            categoryNames.put(categoryId, (String) row[1]);
+            counter(fresh.byCategory, categoryId).add(((Number) row[2]).longValue());
+        }
+    }
+
+    // A row of agent id, first name, last name, assigned count
+    private Long addAgent(Aggregates fresh, Object[] row) {
+        Long agentId = ((Number) row[0]).longValue();
+        agentNames.put(agentId, row[1] + " " + row[2]);
+        counter(fresh.byAgent, agentId).add(((Number) row[3]).longValue());
+        return agentId;
+    }
+
+    // Rows of year, month, count
+    private static void addMonths(Map<YearMonth, LongAdder> byMonth, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            counter(byMonth, month).add(((Number) row[2]).longValue());
+        }
+    }
+
+    // Rows of priority name, ticket count, total seconds
+    private static void addDurations(Map<Priority, LongAdder> countByPriority, Map<Priority, LongAdder> secondsByPriority,
+                                     LongAdder totalCount, LongAdder totalSeconds, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Priority priority = Priority.valueOf((String) row[0]);
+            long count = ((Number) row[1]).longValue();
+            long seconds = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+            counter(countByPriority, priority).add(count);
+            counter(secondsByPriority, priority).add(seconds);
+            totalCount.add(count);
+            totalSeconds.add(seconds);
+        }
+    }
+
+    private void applyChange(TicketSnapshot before, TicketSnapshot after) {
+        Aggregates current = aggregates;
+        if (before != null) {
+            apply(current, before, -1);
+        }
+        if (after != null) {
+            apply(current, after, 1);
+        }
+        revision.incrementAndGet();
+
+        // Percentile sketches only take new samples, never removals
+        if (after != null && after.getResolvedAt() != null
+                && (before == null || !after.getResolvedAt().equals(before.getResolvedAt()))) {
+            latencySketchService.recordResolution(after.getPriority(), after.getCategoryId(),
+                    after.getAssigneeId(), after.getCreatedAt(), after.getResolvedAt());
+        }
+    }
+
+    private void apply(Aggregates current, TicketSnapshot ticket, int sign) {
+        current.total.add(sign);
+        counter(current.byStatus, ticket.getStatus()).add(sign);
+        counter(current.byPriority, ticket.getPriority()).add(sign);
+
+        if (ticket.getCategoryId() != null) {
+            categoryNames.put(ticket.getCategoryId(), ticket.getCategoryName());
+            counter(current.byCategory, ticket.getCategoryId()).add(sign);
+        }
+
+        if (ticket.getAssigneeId() != null) {
+            agentNames.put(ticket.getAssigneeId(), ticket.getAssigneeName());
+            counter(current.byAgent, ticket.getAssigneeId()).add(sign);
+            if (ticket.getStatus() == Status.RESOLVED) {
+                counter(current.resolvedByAgent, ticket.getAssigneeId()).add(sign);
+            }
+        }
+
+        if (ticket.getCreatedAt() != null) {
+            counter(current.createdByMonth, YearMonth.from(ticket.getCreatedAt())).add(sign);
+        }
+
+        if (ticket.getCreatedAt() != null && ticket.getResolvedAt() != null) {
+            long seconds = Duration.between(ticket.getCreatedAt(), ticket.getResolvedAt()).getSeconds();
+            counter(current.resolvedByMonth, YearMonth.from(ticket.getResolvedAt())).add(sign);
+            counter(current.resolutionCountByPriority, ticket.getPriority()).add(sign);
+            counter(current.resolutionSecondsByPriority, ticket.getPriority()).add(sign * seconds);
+            current.resolutionCount.add(sign);
+            current.resolutionSeconds.add(sign * seconds);
+        }
+    }
+
+    private List<LatencyPercentilesDTO> withNames(List<LatencyPercentilesDTO> percentiles) {
+        for (LatencyPercentilesDTO entry : percentiles) {
+            if ("category".equals(entry.getDimension())) {
+                entry.setName(categoryNames.get(Long.valueOf(entry.getKey())));
+            } else if ("agent".equals(entry.getDimension())) {
+                entry.setName(agentNames.get(Long.valueOf(entry.getKey())));
+            } else {
+                entry.setName(entry.getKey());
+            }
+        }
+        return percentiles;
+    }
+
+    private Map<String, Long> lastMonths(Map<YearMonth, LongAdder> byMonth, int months) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        YearMonth current = YearMonth.now();
+        for (int i = months - 1; i >= 0; i--) {
+            YearMonth month = current.minusMonths(i);
+            result.put(month.toString(), sum(byMonth, month));
+        }
+        return result;
+    }
+
+    private Map<String, Double> averageHours(
+            Map<Priority, LongAdder> secondsByPriority,
+            Map<Priority, LongAdder> countByPriority,
+            LongAdder totalSeconds,
+            LongAdder totalCount) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Priority priority : Priority.values()) {
+            long count = sum(countByPriority, priority);
+            result.put(priority.name(), count > 0 ? sum(secondsByPriority, priority) / 3600.0 / count : 0.0);
+        }
+        long count = totalCount.sum();
+        result.put("overall", count > 0 ? totalSeconds.sum() / 3600.0 / count : 0.0);
+        return result;
+    }
+
+    private Duration averageDuration(LongAdder totalSeconds, LongAdder totalCount) {
+        long count = totalCount.sum();
+        return count > 0 ? Duration.ofSeconds(totalSeconds.sum() / count) : Duration.ZERO;
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> long sum(Map<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter.sum() : 0L;
+    }
+
+    private static class Aggregates {
+        final LongAdder total = new LongAdder();
+        final Map<Status, LongAdder> byStatus = new ConcurrentHashMap<>();
+        final Map<Priority, LongAdder> byPriority = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> byCategory = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> byAgent = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> resolvedByAgent = new ConcurrentHashMap<>();
+        final Map<YearMonth, LongAdder> createdByMonth = new ConcurrentHashMap<>();
+        final Map<YearMonth, LongAdder> resolvedByMonth = new ConcurrentHashMap<>();
+        final LongAdder resolutionSeconds = new LongAdder();
+        final LongAdder resolutionCount = new LongAdder();
+        final Map<Priority, LongAdder> resolutionSecondsByPriority = new ConcurrentHashMap<>();
+        final Map<Priority, LongAdder> resolutionCountByPriority = new ConcurrentHashMap<>();
+        // First-response times depend on comments, so they are only refreshed by reconcile()
+        final LongAdder responseSeconds = new LongAdder();
+        final LongAdder responseCount = new LongAdder();
+        final Map<Priority, LongAdder> responseSecondsByPriority = new ConcurrentHashMap<>();
+        final Map<Priority, LongAdder> responseCountByPriority = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The subset of a ticket's state that the counters depend on, captured while the
+     * entity is still attached so it can be applied after commit.
+     */
+    @Getter
+    public static class TicketSnapshot {
+        private final Status status;
+        private final Priority priority;
+        private final Long categoryId;
+        private final String categoryName;
+        private final Long assigneeId;
+        private final String assigneeName;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime resolvedAt;
+
+        private TicketSnapshot(Ticket ticket) {
+            this.status = ticket.getStatus();
+            this.priority = ticket.getPriority();
+            this.categoryId = ticket.getCategory() != null ? ticket.getCategory().getId() : null;
+            this.categoryName = ticket.getCategory() != null ? ticket.getCategory().getName() : null;
+            this.assigneeId = ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null;
+            this.assigneeName = ticket.getAssignedTo() != null
+                    ? ticket.getAssignedTo().getFirstName() + " " + ticket.getAssignedTo().getLastName()
+                    : null;
+            this.createdAt = ticket.getCreatedAt();
+            this.resolvedAt = ticket.getResolvedAt();
+        }
+
+        private TicketSnapshot(Status status, Priority priority, Long categoryId, String categoryName,
+                               Long assigneeId, String assigneeName, LocalDateTime createdAt,
+                               LocalDateTime resolvedAt) {
+            this.status = status;
+            this.priority = priority;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.assigneeId = assigneeId;
+            this.assigneeName = assigneeName;
+            this.createdAt = createdAt;
+            this.resolvedAt = resolvedAt;
+        }
+
+        public static TicketSnapshot of(Ticket ticket) {
+            return new TicketSnapshot(ticket);
+        }
+
+        // For writes that bypass the entity, such as the set-based bulk updates
+        public static TicketSnapshot of(Status status, Priority priority, Long categoryId, String categoryName,
+                                        Long assigneeId, String assigneeName, LocalDateTime createdAt,
+                                        LocalDateTime resolvedAt) {
+            return new TicketSnapshot(status, priority, categoryId, categoryName, assigneeId, assigneeName,
+                    createdAt, resolvedAt);
+        }
+    }
+}
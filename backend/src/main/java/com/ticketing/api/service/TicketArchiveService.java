@@ -0,0 +1,431 @@
+package com.ticketing.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.api.dto.AttachmentDTO;
+import com.ticketing.api.dto.CommentDTO;
+import com.ticketing.api.dto.TicketDTO;
+import com.ticketing.api.dto.TicketHistoryDTO;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.security.TicketSecurity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves tickets that have been closed for longer than {@code app.archive.closed-after-days} out of
+ * the hot tables. Each batch runs in one transaction: the tickets, their comments, history and
+ * attachment metadata are read with a handful of set-based queries, written to
+ * {@code ticket_archive} as one gzip-compressed JSON document per ticket in a single JDBC batch,
+ * and then deleted from the hot tables. Attachment content is released to {@link AttachmentBlobStore},
+ * which deletes files no remaining ticket refers to; the archive keeps the attachment metadata only.
+ * <p>
+ * Reads by id fall back to the archive when the hot tables miss ({@link #findTicket},
+ * {@link #findHistory}, {@link #findComments}, {@link #findAttachments}), whether or not the job is
+ * enabled. Archived tickets leave the search index; the statistics keep counting them from the
+ * priority and timestamps stored next to the payload.
+ */
+@Service
+public class TicketArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketArchiveService.class);
+
+    // SKIP LOCKED: a ticket being edited right now is picked up by the next run instead
+    private static final String SELECT_CANDIDATES =
+            "SELECT id FROM tickets WHERE status = 'CLOSED' AND closed_at < ? " +
+            "ORDER BY closed_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String SELECT_TICKETS =
+            "SELECT t.id, t.subject, t.description, t.status, t.priority, t.created_at, t.updated_at, " +
+            "t.resolved_at, t.closed_at, t.due_date, t.category_id, c.name AS category_name, " +
+            "t.created_by_id, cb.first_name AS created_by_first_name, cb.last_name AS created_by_last_name, " +
+            "t.assigned_to_id, a.first_name AS assigned_to_first_name, a.last_name AS assigned_to_last_name " +
+            "FROM tickets t JOIN users cb ON cb.id = t.created_by_id " +
+            "LEFT JOIN users a ON a.id = t.assigned_to_id LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.id = ANY(?)";
+
+    private static final String SELECT_COMMENTS =
+            "SELECT cm.id, cm.content, cm.created_at, cm.updated_at, cm.is_internal, cm.ticket_id, cm.user_id, " +
+            "u.first_name, u.last_name, u.role, u.avatar_url " +
+            "FROM comments cm JOIN users u ON u.id = cm.user_id " +
+            "WHERE cm.ticket_id = ANY(?) ORDER BY cm.created_at, cm.id";
+
+    // History never predates its ticket, so the lower bound prunes ticket_history partitions
+    private static final String SELECT_HISTORY =
+            "SELECT h.id, h.field, h.old_value, h.new_value, h.created_at, h.ticket_id, h.user_id, " +
+            "u.first_name, u.last_name, u.role " +
+            "FROM ticket_history h JOIN users u ON u.id = h.user_id " +
+            "WHERE h.ticket_id = ANY(?) AND h.created_at >= ? ORDER BY h.created_at DESC, h.id DESC";
+
+    private static final String SELECT_ATTACHMENTS =
+            "SELECT at.id, at.filename, at.original_filename, at.content_type, at.file_size, " +
+            "at.uploaded_at, at.ticket_id, at.uploaded_by_id, u.first_name, u.last_name " +
+            "FROM attachments at JOIN users u ON u.id = at.uploaded_by_id " +
+            "WHERE at.ticket_id = ANY(?) ORDER BY at.uploaded_at, at.id";
+
+    private static final String INSERT_ARCHIVE =
+            "INSERT INTO ticket_archive (ticket_id, created_by_id, assigned_to_id, category_id, " +
+            "priority, created_at, resolved_at, closed_at, first_response_at, archived_at, payload) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Rows archived before the statistics columns existed
+    private static final String SELECT_UNFILLED =
+            "SELECT ticket_id, payload FROM ticket_archive WHERE priority IS NULL LIMIT ?";
+
+    private static final String FILL_STATS_COLUMNS =
+            "UPDATE ticket_archive SET priority = ?, resolved_at = ?, first_response_at = ? WHERE ticket_id = ?";
+
+    private static final String DETACH_NOTIFICATIONS =
+            "UPDATE notifications SET ticket_id = NULL WHERE ticket_id = ANY(?)";
+
+    private static final String SELECT_PAYLOAD = "SELECT payload FROM ticket_archive WHERE ticket_id = ?";
+
+    // The archived form of a ticket, stored as the compressed payload
+    private record ArchivedTicket(
+            TicketDTO ticket,
+            List<CommentDTO> comments,
+            List<TicketHistoryDTO> history,
+            List<AttachmentDTO> attachments) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TicketSearchIndex searchIndex;
+    private final StatsService statsService;
+    private final TicketSecurity ticketSecurity;
+    private final AttachmentBlobStore blobStore;
+    private final ResourceRevisions revisions;
+    private final boolean enabled;
+    private final int closedAfterDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    @Autowired
+    public TicketArchiveService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            TicketSearchIndex searchIndex,
+            StatsService statsService,
+            TicketSecurity ticketSecurity,
+            AttachmentBlobStore blobStore,
+            ResourceRevisions revisions,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.closed-after-days:180}") int closedAfterDays,
+            @Value("${app.archive.batch-size:500}") int batchSize,
+            @Value("${app.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.searchIndex = searchIndex;
+        this.statsService = statsService;
+        this.ticketSecurity = ticketSecurity;
+        this.blobStore = blobStore;
+        this.revisions = revisions;
+        this.enabled = enabled;
+        this.closedAfterDays = closedAfterDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 45 2 * * *}")
+    public void archiveClosedTickets() {
+        // Runs even with archiving switched off: rows already archived still count in the statistics
+        int filled = fillStatsColumns();
+        if (!enabled || closedAfterDays <= 0) {
+            if (filled > 0) {
+                statsService.reconcile();
+            }
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(closedAfterDays));
+        List<Long> archived = new ArrayList<>();
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            } catch (RuntimeException e) {
+                log.error("Failed to archive a batch of closed tickets; stopping this run", e);
+                break;
+            }
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            archived.addAll(ids);
+            ticketSecurity.invalidateTickets(ids);
+            searchIndex.removeTickets(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (!archived.isEmpty() || filled > 0) {
+            statsService.reconcile();
+        }
+        if (!archived.isEmpty()) {
+            log.info("Archived {} tickets closed before {} in {} ms",
+                    archived.size(), cutoff, System.currentTimeMillis() - start);
+        }
+    }
+
+    // Read-through for TicketService.getTicketById without expansions
+    public Optional<TicketDTO> findTicket(Long ticketId) {
+        return load(ticketId).map(ArchivedTicket::ticket);
+    }
+
+    // Read-through for an expanded TicketService.getTicketById: the payload holds them all, so one read serves every expansion
+    public Optional<TicketDTO> findTicket(Long ticketId, boolean withComments, boolean withHistory,
+                                          boolean withAttachments) {
+        return load(ticketId).map(archived -> {
+            TicketDTO ticket = archived.ticket();
+            if (withComments) {
+                ticket.setComments(archived.comments());
+            }
+            if (withHistory) {
+                ticket.setHistoryItems(archived.history());
+            }
+            if (withAttachments) {
+                ticket.setAttachments(withoutFilePaths(archived.attachments()));
+            }
+            return ticket;
+        });
+    }
+
+    public Optional<List<TicketHistoryDTO>> findHistory(Long ticketId) {
+        return load(ticketId).map(ArchivedTicket::history);
+    }
+
+    public Optional<List<CommentDTO>> findComments(Long ticketId) {
+        return load(ticketId).map(ArchivedTicket::comments);
+    }
+
+    public Optional<List<AttachmentDTO>> findAttachments(Long ticketId) {
+        return load(ticketId).map(archived -> withoutFilePaths(archived.attachments()));
+    }
+
+    // Archiving released the content, so there is no file to point at; older payloads still carry the path
+    private static List<AttachmentDTO> withoutFilePaths(List<AttachmentDTO> attachments) {
+        attachments.forEach(attachment -> attachment.setFilePath(null));
+        return attachments;
+    }
+
+    private List<Long> archiveBatch(Timestamp cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CANDIDATES, Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        Long[] idArray = ids.toArray(new Long[0]);
+
+        Map<Long, ArchivedTicket> tickets = new HashMap<>();
+        jdbcTemplate.query(SELECT_TICKETS, rs -> {
+            TicketDTO ticket = mapTicket(rs);
+            tickets.put(ticket.getId(), new ArchivedTicket(ticket, new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        }, (Object) idArray);
+
+        Timestamp oldest = Timestamp.valueOf(tickets.values().stream()
+                .map(archived -> archived.ticket().getCreatedAt())
+                .min(Comparator.naturalOrder())
+                .orElseThrow());
+
+        jdbcTemplate.query(SELECT_COMMENTS, rs -> {
+            CommentDTO comment = mapComment(rs);
+            tickets.get(comment.getTicketId()).comments().add(comment);
+        }, (Object) idArray);
+        jdbcTemplate.query(SELECT_HISTORY, rs -> {
+            TicketHistoryDTO history = mapHistory(rs);
+            tickets.get(history.getTicketId()).history().add(history);
+        }, idArray, oldest);
+        jdbcTemplate.query(SELECT_ATTACHMENTS, rs -> {
+            AttachmentDTO attachment = mapAttachment(rs);
+            tickets.get(attachment.getTicketId()).attachments().add(attachment);
+        }, (Object) idArray);
+
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<ArchivedTicket> rows = new ArrayList<>(tickets.values());
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE, rows, rows.size(), (ps, archived) -> {
+            TicketDTO ticket = archived.ticket();
+            ps.setLong(1, ticket.getId());
+            ps.setLong(2, ticket.getCreatedById());
+            ps.setObject(3, ticket.getAssignedToId());
+            ps.setObject(4, ticket.getCategoryId());
+            ps.setString(5, ticket.getPriority().name());
+            ps.setTimestamp(6, Timestamp.valueOf(ticket.getCreatedAt()));
+            ps.setTimestamp(7, toTimestamp(ticket.getResolvedAt()));
+            ps.setTimestamp(8, toTimestamp(ticket.getClosedAt()));
+            ps.setTimestamp(9, toTimestamp(firstResponseAt(archived)));
+            ps.setTimestamp(10, archivedAt);
+            ps.setBytes(11, compress(archived));
+        });
+
+        jdbcTemplate.update(DETACH_NOTIFICATIONS, (Object) idArray);
+        jdbcTemplate.update("DELETE FROM ticket_history WHERE ticket_id = ANY(?) AND created_at >= ?", idArray, oldest);
+        jdbcTemplate.update("DELETE FROM comments WHERE ticket_id = ANY(?)", (Object) idArray);
+        blobStore.releaseTicketAttachments(ids);
+        jdbcTemplate.update("DELETE FROM attachments WHERE ticket_id = ANY(?)", (Object) idArray);
+        jdbcTemplate.update("DELETE FROM tickets WHERE id = ANY(?)", (Object) idArray);
+        // Archived tickets leave the lists and are served from the archive from now on
+        revisions.ticketsChanged(ids);
+        return ids;
+    }
+
+    // Fills the statistics columns of rows archived before they existed, from the payload
+    private int fillStatsColumns() {
+        int filled = 0;
+        try {
+            while (true) {
+                Map<Long, ArchivedTicket> rows = new HashMap<>();
+                jdbcTemplate.query(SELECT_UNFILLED,
+                        rs -> { rows.put(rs.getLong(1), decompress(rs.getBytes(2))); }, batchSize);
+                if (rows.isEmpty()) {
+                    return filled;
+                }
+                List<Map.Entry<Long, ArchivedTicket>> entries = new ArrayList<>(rows.entrySet());
+                jdbcTemplate.batchUpdate(FILL_STATS_COLUMNS, entries, entries.size(), (ps, entry) -> {
+                    TicketDTO ticket = entry.getValue().ticket();
+                    ps.setString(1, ticket.getPriority().name());
+                    ps.setTimestamp(2, toTimestamp(ticket.getResolvedAt()));
+                    ps.setTimestamp(3, toTimestamp(firstResponseAt(entry.getValue())));
+                    ps.setLong(4, entry.getKey());
+                });
+                filled += entries.size();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to fill the statistics columns of archived tickets; retrying on the next run", e);
+            return filled;
+        }
+    }
+
+    // As in TicketRepository.sumFirstResponseSecondsGroupedByPriority: the earliest comment
+    private static LocalDateTime firstResponseAt(ArchivedTicket archived) {
+        return archived.comments().stream()
+                .map(CommentDTO::getCreatedAt)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    private Optional<ArchivedTicket> load(Long ticketId) {
+        byte[] payload = jdbcTemplate.query(SELECT_PAYLOAD, rs -> rs.next() ? rs.getBytes(1) : null, ticketId);
+        return Optional.ofNullable(payload).map(this::decompress);
+    }
+
+    private byte[] compress(ArchivedTicket archived) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, archived);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ArchivedTicket decompress(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, ArchivedTicket.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TicketDTO mapTicket(ResultSet rs) throws SQLException {
+        TicketDTO dto = new TicketDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setSubject(rs.getString("subject"));
+        dto.setDescription(rs.getString("description"));
+        dto.setStatus(Status.valueOf(rs.getString("status")));
+        dto.setPriority(Priority.valueOf(rs.getString("priority")));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        dto.setResolvedAt(toLocalDateTime(rs.getTimestamp("resolved_at")));
+        dto.setClosedAt(toLocalDateTime(rs.getTimestamp("closed_at")));
+        dto.setDueDate(toLocalDateTime(rs.getTimestamp("due_date")));
+        dto.setCategoryId(rs.getObject("category_id", Long.class));
+        dto.setCategoryName(rs.getString("category_name"));
+        dto.setCreatedById(rs.getLong("created_by_id"));
+        dto.setCreatedByName(rs.getString("created_by_first_name") + " " + rs.getString("created_by_last_name"));
+        Long assignedToId = rs.getObject("assigned_to_id", Long.class);
+        if (assignedToId != null) {
+            dto.setAssignedToId(assignedToId);
+            dto.setAssignedToName(rs.getString("assigned_to_first_name") + " " + rs.getString("assigned_to_last_name"));
+        }
+        return dto;
+    }
+
+    private static CommentDTO mapComment(ResultSet rs) throws SQLException {
+        CommentDTO dto = new CommentDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setContent(rs.getString("content"));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        dto.setInternal(rs.getBoolean("is_internal"));
+        dto.setTicketId(rs.getLong("ticket_id"));
+        dto.setUserId(rs.getLong("user_id"));
+        dto.setUserName(rs.getString("first_name") + " " + rs.getString("last_name"));
+        dto.setUserRole(rs.getString("role"));
+        dto.setUserAvatarUrl(rs.getString("avatar_url"));
+        return dto;
+    }
+
+    private static TicketHistoryDTO mapHistory(ResultSet rs) throws SQLException {
+        TicketHistoryDTO dto = new TicketHistoryDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setField(rs.getString("field"));
+        dto.setOldValue(rs.getString("old_value"));
+        dto.setNewValue(rs.getString("new_value"));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setTicketId(rs.getLong("ticket_id"));
+        dto.setUserId(rs.getLong("user_id"));
+        dto.setUserName(rs.getString("first_name") + " " + rs.getString("last_name"));
+        dto.setUserRole(rs.getString("role"));
+        return dto;
+    }
+
+    private static AttachmentDTO mapAttachment(ResultSet rs) throws SQLException {
+        AttachmentDTO dto = new AttachmentDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setFilename(rs.getString("filename"));
+        dto.setOriginalFilename(rs.getString("original_filename"));
+        dto.setContentType(rs.getString("content_type"));
+        dto.setFileSize(rs.getLong("file_size"));
+        dto.setUploadedAt(toLocalDateTime(rs.getTimestamp("uploaded_at")));
+        dto.setTicketId(rs.getLong("ticket_id"));
+        dto.setUploadedById(rs.getLong("uploaded_by_id"));
+        dto.setUploadedByName(rs.getString("first_name") + " " + rs.getString("last_name"));
+        return dto;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -0,0 +1,413 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.dto.BulkTicketRequestDTO;
+import com.ticketing.api.dto.BulkTicketResultDTO;
+import com.ticketing.api.entity.User;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.exception.BadRequestException;
+import com.ticketing.api.repository.CategoryRepository;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
+import com.ticketing.api.security.TicketSecurity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mass assign, status change and re-categorize.
+ * <p>
+ * Target ids are processed in chunks of {@code app.bulk.chunk-size}, each in its own transaction:
+ * one set-based {@code UPDATE ... RETURNING} that also hands back the previous values, then the
+ * history rows (through {@link TicketHistoryWriter}) and notification rows as JDBC batches.
+ * Tickets that already have the requested value are left alone. A failing chunk is reported per
+ * ticket and does not roll back the others. The statistics counters take each ticket's delta
+ * from the returned old and new values once its chunk commits; the search index and ownership
+ * decisions are refreshed once per call rather than per ticket.
+ */
+@Service
+public class TicketBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketBulkService.class);
+
+    // Locks the targets and keeps their previous state, which every UPDATE returns next to the
+    // new values: history needs the old names, the statistics the exact per-ticket delta
+    private static final String LOCK_OLD =
+            "WITH old AS (SELECT t.id, t.status, t.priority, t.category_id, t.assigned_to_id, t.resolved_at, " +
+            "c.name AS category_name, u.username AS assignee_username, " +
+            "u.first_name || ' ' || u.last_name AS assignee_name FROM tickets t " +
+            "LEFT JOIN categories c ON c.id = t.category_id " +
+            "LEFT JOIN users u ON u.id = t.assigned_to_id WHERE t.id = ANY(?) FOR UPDATE OF t) ";
+
+    private static final String RETURNING_OLD_AND_NEW =
+            " RETURNING t.id, t.subject, t.created_by_id, t.created_at, t.status, t.priority, t.category_id, " +
+            "t.assigned_to_id, t.resolved_at, old.status AS old_status, old.priority AS old_priority, " +
+            "old.category_id AS old_category_id, old.category_name AS old_category_name, " +
+            "old.assigned_to_id AS old_assigned_to_id, old.assignee_username AS old_assignee_username, " +
+            "old.assignee_name AS old_assignee_name, old.resolved_at AS old_resolved_at";
+
+    private static final String ASSIGN = LOCK_OLD +
+            "UPDATE tickets t SET assigned_to_id = ?, updated_at = ?, " +
+            "status = CASE WHEN old.status = 'OPEN' THEN 'IN_PROGRESS' ELSE old.status END " +
+            "FROM old WHERE t.id = old.id AND t.assigned_to_id IS DISTINCT FROM ?" + RETURNING_OLD_AND_NEW;
+
+    // resolved_at/closed_at follow TicketService.changeStatus; the SET fragment depends on the target
+    private static final String CHANGE_STATUS = LOCK_OLD +
+            "UPDATE tickets t SET status = ?, updated_at = ?, %s " +
+            "FROM old WHERE t.id = old.id AND t.status <> ?" + RETURNING_OLD_AND_NEW;
+
+    private static final String RECATEGORIZE = LOCK_OLD +
+            "UPDATE tickets t SET category_id = ?, updated_at = ? " +
+            "FROM old WHERE t.id = old.id AND t.category_id IS DISTINCT FROM ?" + RETURNING_OLD_AND_NEW;
+
+    private static final String EXISTING_IDS = "SELECT id FROM tickets WHERE id = ANY(?)";
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (message, type, read, user_id, ticket_id, created_at) " +
+            "VALUES (?, 'INFO', false, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final TicketHistoryWriter historyWriter;
+    private final NotificationStreamService notificationStreamService;
+    private final PrincipalCache principalCache;
+    private final TicketSecurity ticketSecurity;
+    private final TicketSearchIndex searchIndex;
+    private final StatsService statsService;
+    private final ResourceRevisions revisions;
+    private final int chunkSize;
+    private final int maxTickets;
+
+    @Autowired
+    public TicketBulkService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TicketRepository ticketRepository,
+            UserRepository userRepository,
+            CategoryRepository categoryRepository,
+            TicketHistoryWriter historyWriter,
+            NotificationStreamService notificationStreamService,
+            PrincipalCache principalCache,
+            TicketSecurity ticketSecurity,
+            TicketSearchIndex searchIndex,
+            StatsService statsService,
+            ResourceRevisions revisions,
+            @Value("${app.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${app.bulk.max-tickets:50000}") int maxTickets) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ticketRepository = ticketRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.historyWriter = historyWriter;
+        this.notificationStreamService = notificationStreamService;
+        this.principalCache = principalCache;
+        this.ticketSecurity = ticketSecurity;
+        this.searchIndex = searchIndex;
+        this.statsService = statsService;
+        this.revisions = revisions;
+        this.chunkSize = chunkSize;
+        this.maxTickets = maxTickets;
+    }
+
+    public BulkTicketResultDTO assign(BulkTicketRequestDTO request) {
+        Long assigneeId = request.getNewAssigneeId();
+        if (assigneeId == null) {
+            throw new BadRequestException("newAssigneeId is required");
+        }
+        User assignee = userRepository.findById(assigneeId)
+                .orElseThrow(() -> new BadRequestException("Unknown assignee: " + assigneeId));
+        String assigneeUsername = assignee.getUsername();
+        String assigneeName = assignee.getFirstName() + " " + assignee.getLastName();
+
+        return run(request, (ids, userId, now, result) -> {
+            List<Notice> notices = new ArrayList<>();
+            queryWithIds(ASSIGN, ids, rs -> {
+                Long id = rs.getLong("id");
+                String oldAssignee = rs.getString("old_assignee_username");
+                String oldStatus = rs.getString("old_status");
+                String newStatus = rs.getString("status");
+                if (!oldStatus.equals(newStatus)) {
+                    writeHistory(id, userId, "status", oldStatus, newStatus, now);
+                }
+                writeHistory(id, userId, "assignee", oldAssignee != null ? oldAssignee : "None", assigneeUsername, now);
+                notices.add(new Notice(assigneeId, id,
+                        "You have been assigned to ticket #" + id + ": " + rs.getString("subject")));
+                recordStatsChange(rs, rs.getString("old_category_name"), assigneeName, result);
+                result.updated(id);
+            }, assigneeId, Timestamp.valueOf(now), assigneeId);
+            insertNotifications(notices, now);
+        });
+    }
+
+    public BulkTicketResultDTO changeStatus(BulkTicketRequestDTO request) {
+        Status newStatus = request.getNewStatus();
+        if (newStatus == null) {
+            throw new BadRequestException("newStatus is required");
+        }
+        String sql = String.format(CHANGE_STATUS, timestampColumns(newStatus));
+
+        return run(request, (ids, userId, now, outcome) -> {
+            List<Notice> notices = new ArrayList<>();
+            queryWithIds(sql, ids, rs -> {
+                Long id = rs.getLong("id");
+                writeHistory(id, userId, "status", rs.getString("old_status"), newStatus.name(), now);
+                notices.add(new Notice(rs.getLong("created_by_id"), id,
+                        "Ticket #" + id + " status changed to " + newStatus));
+                // Also feeds the resolution-time sketch when the ticket becomes resolved
+                recordStatsChange(rs, rs.getString("old_category_name"), rs.getString("old_assignee_name"), outcome);
+                outcome.updated(id);
+            }, statusArgs(newStatus, now));
+            insertNotifications(notices, now);
+        });
+    }
+
+    public BulkTicketResultDTO recategorize(BulkTicketRequestDTO request) {
+        Long categoryId = request.getNewCategoryId();
+        if (categoryId == null) {
+            throw new BadRequestException("newCategoryId is required");
+        }
+        String categoryName = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new BadRequestException("Unknown category: " + categoryId))
+                .getName();
+
+        return run(request, (ids, userId, now, result) ->
+                queryWithIds(RECATEGORIZE, ids, rs -> {
+                    Long id = rs.getLong("id");
+                    String oldCategory = rs.getString("old_category_name");
+                    writeHistory(id, userId, "category", oldCategory != null ? oldCategory : "None", categoryName, now);
+                    recordStatsChange(rs, categoryName, rs.getString("old_assignee_name"), result);
+                    result.updated(id);
+                }, categoryId, Timestamp.valueOf(now), categoryId));
+    }
+
+    private BulkTicketResultDTO run(BulkTicketRequestDTO request, ChunkOperation operation) {
+        long start = System.currentTimeMillis();
+        Long userId = principalCache.requireCurrent().id();
+        List<Long> ids = resolveTargets(request);
+        ResultCollector result = new ResultCollector();
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                ResultCollector chunkResult = new ResultCollector();
+                transactionTemplate.executeWithoutResult(status -> {
+                    operation.apply(chunk, userId, now, chunkResult);
+                    classifyUntouched(chunk, chunkResult);
+                });
+                result.addAll(chunkResult);
+                chunkResult.afterCommitActions.forEach(Runnable::run);
+                revisions.ticketsChanged(chunkResult.updatedIds);
+            } catch (DataAccessException e) {
+                String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn("Bulk ticket chunk of {} failed: {}", chunk.size(), message);
+                chunk.forEach(id -> result.add(id, BulkTicketResultDTO.Outcome.FAILED, message));
+            }
+        }
+
+        if (!result.updatedIds.isEmpty()) {
+            ticketSecurity.invalidateTickets(result.updatedIds);
+            searchIndex.reindexTickets(result.updatedIds);
+        }
+
+        BulkTicketResultDTO dto = result.toDTO(ids.size(), System.currentTimeMillis() - start);
+        log.info("Bulk ticket operation on {} tickets: {} updated, {} unchanged, {} not found, {} failed in {} ms",
+                dto.getRequested(), dto.getUpdated(), dto.getUnchanged(), dto.getNotFound(), dto.getFailed(),
+                dto.getDurationMs());
+        return dto;
+    }
+
+    private List<Long> resolveTargets(BulkTicketRequestDTO request) {
+        List<Long> ids;
+        if (request.getTicketIds() != null && !request.getTicketIds().isEmpty()) {
+            ids = new ArrayList<>(new LinkedHashSet<>(request.getTicketIds()));
+        } else {
+            // One extra row tells us the filter matched too many tickets
+            ids = ticketRepository.findIdsWithFilters(request.getStatus(), request.getPriority(),
+                    request.getCategoryId(), request.getCreatedById(), request.getAssignedToId(),
+                    PageRequest.of(0, maxTickets + 1));
+        }
+        if (ids.size() > maxTickets) {
+            throw new BadRequestException("A bulk operation can change at most " + maxTickets + " tickets");
+        }
+        return ids;
+    }
+
+    // Ids the UPDATE did not return either already had the value or do not exist
+    private void classifyUntouched(List<Long> chunk, ResultCollector result) {
+        Set<Long> untouched = new HashSet<>(chunk);
+        untouched.removeAll(result.updatedIds);
+        if (untouched.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = new HashSet<>();
+        queryWithIds(EXISTING_IDS, new ArrayList<>(untouched), rs -> existing.add(rs.getLong(1)));
+        for (Long id : untouched) {
+            result.add(id, existing.contains(id) ? BulkTicketResultDTO.Outcome.UNCHANGED
+                    : BulkTicketResultDTO.Outcome.NOT_FOUND, null);
+        }
+    }
+
+    private void queryWithIds(String sql, List<Long> ids, RowHandler handler, Object... args) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Array idArray = connection.createArrayOf("bigint", ids.toArray());
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setArray(1, idArray);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 2, args[i]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        handler.handle(rs);
+                    }
+                }
+            } finally {
+                idArray.free();
+            }
+            return null;
+        });
+    }
+
+    // Names are not returned for the new values; the caller passes the ones it already knows
+    private void recordStatsChange(ResultSet rs, String newCategoryName, String newAssigneeName,
+                                   ResultCollector result) throws SQLException {
+        LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+        StatsService.TicketSnapshot before = StatsService.TicketSnapshot.of(
+                Status.valueOf(rs.getString("old_status")), Priority.valueOf(rs.getString("old_priority")),
+                (Long) rs.getObject("old_category_id"), rs.getString("old_category_name"),
+                (Long) rs.getObject("old_assigned_to_id"), rs.getString("old_assignee_name"),
+                createdAt, toLocalDateTime(rs.getTimestamp("old_resolved_at")));
+        StatsService.TicketSnapshot after = StatsService.TicketSnapshot.of(
+                Status.valueOf(rs.getString("status")), Priority.valueOf(rs.getString("priority")),
+                (Long) rs.getObject("category_id"), newCategoryName,
+                (Long) rs.getObject("assigned_to_id"), newAssigneeName,
+                createdAt, toLocalDateTime(rs.getTimestamp("resolved_at")));
+        result.afterCommit(() -> statsService.recordTicketChange(before, after));
+    }
+
+    private void writeHistory(Long ticketId, Long userId, String field, String oldValue, String newValue,
+                              LocalDateTime now) {
+        historyWriter.write(new TicketHistoryWriter.HistoryEvent(ticketId, userId, field, oldValue, newValue, now));
+    }
+
+    private void insertNotifications(List<Notice> notices, LocalDateTime now) {
+        if (notices.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, notices, notices.size(), (ps, notice) -> {
+            ps.setString(1, notice.message());
+            ps.setLong(2, notice.userId());
+            ps.setLong(3, notice.ticketId());
+            ps.setTimestamp(4, createdAt);
+        });
+
+        // One unread-count push per recipient rather than one event per notification
+        Map<Long, Long> perUser = new HashMap<>();
+        notices.forEach(notice -> perUser.merge(notice.userId(), 1L, Long::sum));
+        perUser.forEach(notificationStreamService::publishUnreadDelta);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String timestampColumns(Status newStatus) {
+        return switch (newStatus) {
+            case RESOLVED -> "resolved_at = ?";
+            case CLOSED -> "closed_at = ?";
+            default -> "resolved_at = CASE WHEN old.status IN ('RESOLVED', 'CLOSED') THEN NULL ELSE t.resolved_at END, " +
+                    "closed_at = CASE WHEN old.status IN ('RESOLVED', 'CLOSED') THEN NULL ELSE t.closed_at END";
+        };
+    }
+
+    // Parameters after the id array, in CHANGE_STATUS order
+    private static Object[] statusArgs(Status newStatus, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        if (newStatus == Status.RESOLVED || newStatus == Status.CLOSED) {
+            return new Object[] {newStatus.name(), timestamp, timestamp, newStatus.name()};
+        }
+        return new Object[] {newStatus.name(), timestamp, newStatus.name()};
+    }
+
+    @FunctionalInterface
+    private interface ChunkOperation {
+        void apply(List<Long> ids, Long userId, LocalDateTime now, ResultCollector result);
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet rs) throws SQLException;
+    }
+
+    private record Notice(Long userId, Long ticketId, String message) {
+    }
+
+    private static class ResultCollector {
+        final List<BulkTicketResultDTO.TicketOutcome> outcomes = new ArrayList<>();
+        final Set<Long> updatedIds = new HashSet<>();
+        final Map<BulkTicketResultDTO.Outcome, Integer> counts = new HashMap<>();
+        final List<Runnable> afterCommitActions = new ArrayList<>();
+
+        // Run only if the chunk's transaction commits
+        void afterCommit(Runnable action) {
+            afterCommitActions.add(action);
+        }
+
+        void updated(Long id) {
+            updatedIds.add(id);
+            add(id, BulkTicketResultDTO.Outcome.UPDATED, null);
+        }
+
+        void add(Long id, BulkTicketResultDTO.Outcome outcome, String message) {
+            outcomes.add(new BulkTicketResultDTO.TicketOutcome(id, outcome, message));
+            counts.merge(outcome, 1, Integer::sum);
+        }
+
+        void addAll(ResultCollector other) {
+            outcomes.addAll(other.outcomes);
+            updatedIds.addAll(other.updatedIds);
+            other.counts.forEach((outcome, count) -> counts.merge(outcome, count, Integer::sum));
+        }
+
+        BulkTicketResultDTO toDTO(int requested, long durationMs) {
+            return BulkTicketResultDTO.builder()
+                    .requested(requested)
+                    .updated(counts.getOrDefault(BulkTicketResultDTO.Outcome.UPDATED, 0))
+                    .unchanged(counts.getOrDefault(BulkTicketResultDTO.Outcome.UNCHANGED, 0))
+                    .notFound(counts.getOrDefault(BulkTicketResultDTO.Outcome.NOT_FOUND, 0))
+                    .failed(counts.getOrDefault(BulkTicketResultDTO.Outcome.FAILED, 0))
+                    .durationMs(durationMs)
+                    .outcomes(outcomes)
+                    .build();
+        }
+    }
+}
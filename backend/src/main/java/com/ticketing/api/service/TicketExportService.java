@@ -0,0 +1,188 @@
+package com.ticketing.api.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.enums.TicketFileFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams filtered tickets as CSV or NDJSON straight from a forward-only JDBC cursor.
+ * <p>
+ * Rows are fetched {@code app.export.fetch-size} at a time inside a read-only transaction
+ * (PostgreSQL only uses a server-side cursor with autocommit off) and written to the response
+ * as they arrive, so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class TicketExportService {
+
+    private static final String SELECT_TICKETS =
+            "SELECT t.id, t.subject, t.description, t.status, t.priority, t.created_at, t.updated_at, " +
+            "t.resolved_at, t.closed_at, t.due_date, t.category_id, c.name AS category_name, " +
+            "t.created_by_id, cb.username AS created_by_username, t.assigned_to_id, a.username AS assigned_to_username " +
+            "FROM tickets t " +
+            "LEFT JOIN categories c ON c.id = t.category_id " +
+            "LEFT JOIN users cb ON cb.id = t.created_by_id " +
+            "LEFT JOIN users a ON a.id = t.assigned_to_id";
+
+    private static final String[] COLUMNS = {
+            "id", "subject", "description", "status", "priority", "createdAt", "updatedAt",
+            "resolvedAt", "closedAt", "dueDate", "categoryId", "categoryName",
+            "createdById", "createdByUsername", "assignedToId", "assignedToUsername"
+    };
+
+    public record ExportFilter(
+            Status status,
+            Priority priority,
+            Long categoryId,
+            Long createdById,
+            Long assignedToId,
+            LocalDateTime createdFrom,
+            LocalDateTime createdTo,
+            LocalDateTime updatedFrom,
+            LocalDateTime updatedTo) {
+    }
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TicketExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(ExportFilter filter, TicketFileFormat format, OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT_TICKETS).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        appendFilters(filter, sql, args);
+        sql.append(" ORDER BY t.id");
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                if (format == TicketFileFormat.CSV) {
+                    writeCsv(sql.toString(), args.toArray(), out);
+                } else {
+                    writeNdjson(sql.toString(), args.toArray(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeCsv(String sql, Object[] args, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        cursorJdbcTemplate.query(sql, rs -> {
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvField(value(rs, i + 1)));
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, args);
+        writer.flush();
+    }
+
+    private void writeNdjson(String sql, Object[] args, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        cursorJdbcTemplate.query(sql, rs -> {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    Object value = rs.getObject(i + 1);
+                    if (value instanceof Number number) {
+                        generator.writeNumberField(COLUMNS[i], number.longValue());
+                    } else {
+                        generator.writeStringField(COLUMNS[i], value(rs, i + 1));
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, args);
+        generator.flush();
+    }
+
+    private static void appendFilters(ExportFilter filter, StringBuilder sql, List<Object> args) {
+        appendFilter(sql, args, "t.status = ?", filter.status() != null ? filter.status().name() : null);
+        appendFilter(sql, args, "t.priority = ?", filter.priority() != null ? filter.priority().name() : null);
+        appendFilter(sql, args, "t.category_id = ?", filter.categoryId());
+        appendFilter(sql, args, "t.created_by_id = ?", filter.createdById());
+        appendFilter(sql, args, "t.assigned_to_id = ?", filter.assignedToId());
+        appendFilter(sql, args, "t.created_at >= ?", timestamp(filter.createdFrom()));
+        appendFilter(sql, args, "t.created_at < ?", timestamp(filter.createdTo()));
+        appendFilter(sql, args, "t.updated_at >= ?", timestamp(filter.updatedFrom()));
+        appendFilter(sql, args, "t.updated_at < ?", timestamp(filter.updatedTo()));
+    }
+
+    private static void appendFilter(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            args.add(value);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static String value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    // RFC 4180 quoting; empty string for NULL
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
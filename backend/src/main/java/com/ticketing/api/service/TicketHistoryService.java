@@ -1,10 +1,11 @@
 package com.ticketing.api.service;
 
+import com.ticketing.api.dto.TicketDTO;
 import com.ticketing.api.dto.TicketHistoryDTO;
+import com.ticketing.api.entity.Category;
 import com.ticketing.api.entity.Ticket;
 import com.ticketing.api.entity.TicketHistory;
-import com.ticketing.api.entity.User;
-import com.ticketing.api.exception.ResourceNotFoundException;
+import com.ticketing.api.repository.CategoryRepository;
 import com.ticketing.api.repository.TicketHistoryRepository;
 import com.ticketing.api.repository.TicketRepository;
 import com.ticketing.api.repository.UserRepository;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,39 +24,101 @@ public class TicketHistoryService {
     private final TicketHistoryRepository historyRepository;
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final TicketHistoryWriter historyWriter;
+    private final TicketArchiveService archiveService;
 
     @Autowired
     public TicketHistoryService(
             TicketHistoryRepository historyRepository,
             TicketRepository ticketRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            CategoryRepository categoryRepository,
+            TicketHistoryWriter historyWriter,
+            TicketArchiveService archiveService) {
         this.historyRepository = historyRepository;
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.historyWriter = historyWriter;
+        this.archiveService = archiveService;
     }
 
+    @Transactional(readOnly = true)
     public List<TicketHistoryDTO> getHistoryByTicketId(Long ticketId) {
-        return historyRepository.findByTicketIdOrderByCreatedAtDesc(ticketId)
-                .stream()
+        // History never predates its ticket; bounding on that keeps the query partition-pruned
+        Optional<LocalDateTime> createdAt = ticketRepository.findCreatedAtById(ticketId);
+        if (createdAt.isEmpty()) {
+            // Archived tickets keep their history in the archive
+            Optional<List<TicketHistoryDTO>> archived = archiveService.findHistory(ticketId);
+            if (archived.isPresent()) {
+                return archived.get();
+            }
+        }
+        List<TicketHistory> history = createdAt
+                .map(since -> historyRepository.findByTicketIdSince(ticketId, since))
+                .orElseGet(() -> historyRepository.findByTicketIdOrderByCreatedAtDesc(ticketId));
+        return history.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
-    @Transactional
-    public TicketHistoryDTO createTicketHistory(Ticket ticket, String field, String oldValue, String newValue, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    // The hot tables only, and nothing for a ticket that is not live; TicketService reads an
+    // archived ticket's history with the ticket itself
+    List<TicketHistoryDTO> findLiveHistory(Long ticketId) {
+        return ticketRepository.findCreatedAtById(ticketId)
+                .map(since -> historyRepository.findByTicketIdSince(ticketId, since))
+                .orElseGet(List::of).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Buffered by TicketHistoryWriter and written in one batch when the surrounding transaction commits
+    public void createTicketHistory(Ticket ticket, String field, String oldValue, String newValue, Long userId) {
+        historyWriter.write(new TicketHistoryWriter.HistoryEvent(
+                ticket.getId(), userId, field, oldValue, newValue, LocalDateTime.now()));
+    }
+
+    // Records a history entry for each field an update to the ticket changes
+    public void trackChanges(Ticket existingTicket, TicketDTO newTicketDTO, Long userId) {
+        // Track subject change
+        if (!existingTicket.getSubject().equals(newTicketDTO.getSubject())) {
+            createTicketHistory(
+                    existingTicket, 
+                    "subject", 
+                    existingTicket.getSubject(), 
+                    newTicketDTO.getSubject(), 
+                    userId);
+        }
         
-        TicketHistory history = new TicketHistory();
-        history.setTicket(ticket);
-        history.setUser(user);
-        history.setField(field);
-        history.setOldValue(oldValue);
-        history.setNewValue(newValue);
-        history.setCreatedAt(LocalDateTime.now());
+        // Track priority change
+        if (existingTicket.getPriority() != newTicketDTO.getPriority()) {
+            createTicketHistory(
+                    existingTicket, 
+                    "priority", 
+                    existingTicket.getPriority().name(), 
+                    newTicketDTO.getPriority().name(), 
+                    userId);
+        }
         
-        TicketHistory savedHistory = historyRepository.save(history);
-        return convertToDTO(savedHistory);
+        // Track category change
+        Long existingCategoryId = existingTicket.getCategory() != null ? existingTicket.getCategory().getId() : null;
+        if ((existingCategoryId == null && newTicketDTO.getCategoryId() != null) || 
+            (existingCategoryId != null && !existingCategoryId.equals(newTicketDTO.getCategoryId()))) {
+            
+            String oldCategory = existingTicket.getCategory() != null ? existingTicket.getCategory().getName() : "None";
+            String newCategory = newTicketDTO.getCategoryId() == null ? "Unknown"
+                    : categoryRepository.findById(newTicketDTO.getCategoryId())
+                            .map(Category::getName)
+                            .orElse("Unknown");
+            
+            createTicketHistory(
+                    existingTicket, 
+                    "category", 
+                    oldCategory, 
+                    newCategory, 
+                    userId);
+        }
     }
 
     private TicketHistoryDTO convertToDTO(TicketHistory history) {
@@ -0,0 +1,253 @@
+package com.ticketing.api.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write pipeline for ticket history rows.
+ * <p>
+ * Events recorded inside a transaction are collected and written once, just before commit,
+ * as a single JDBC batch with ids taken from {@code ticket_history_seq} in blocks, so no
+ * per-row user lookup or IDENTITY round trip is needed. {@code app.history.write-mode}
+ * selects where that batch goes:
+ * <ul>
+ *   <li>{@code sync} (default): straight into {@code ticket_history}, atomically with the ticket change.</li>
+ *   <li>{@code outbox}: into the narrow {@code ticket_history_outbox} table; after commit the events
+ *   are queued in memory and a background flush moves them into {@code ticket_history} in large
+ *   batches. Rows that don't fit in the queue, or are left over after a crash, are moved by a
+ *   periodic sweep, so nothing committed is lost. History reads may lag by one flush interval.</li>
+ * </ul>
+ */
+@Service
+public class TicketHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketHistoryWriter.class);
+
+    // Must match the allocationSize of ticket_history_seq on TicketHistory
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO ticket_history (id, ticket_id, user_id, field, old_value, new_value, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // ticket_history is partitioned by created_at, so its primary key is (id, created_at)
+    private static final String INSERT_HISTORY_IF_ABSENT = INSERT_HISTORY + " ON CONFLICT (id, created_at) DO NOTHING";
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO ticket_history_outbox (id, ticket_id, user_id, field, old_value, new_value, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MOVE_OUTBOX =
+            "INSERT INTO ticket_history (id, ticket_id, user_id, field, old_value, new_value, created_at) " +
+            "SELECT o.id, o.ticket_id, o.user_id, o.field, o.old_value, o.new_value, o.created_at " +
+            "FROM ticket_history_outbox o WHERE o.created_at < ? " +
+            "AND EXISTS (SELECT 1 FROM tickets t WHERE t.id = o.ticket_id) ON CONFLICT (id, created_at) DO NOTHING " +
+            "RETURNING ticket_id";
+
+    // Also drops rows whose ticket was deleted before they were moved
+    private static final String DELETE_MOVED_OUTBOX =
+            "DELETE FROM ticket_history_outbox o WHERE o.created_at < ? " +
+            "AND (EXISTS (SELECT 1 FROM ticket_history h WHERE h.id = o.id AND h.created_at = o.created_at) " +
+            "OR NOT EXISTS (SELECT 1 FROM tickets t WHERE t.id = o.ticket_id))";
+
+    public enum WriteMode {
+        SYNC,
+        OUTBOX
+    }
+
+    public record HistoryEvent(
+            Long ticketId,
+            Long userId,
+            String field,
+            String oldValue,
+            String newValue,
+            LocalDateTime createdAt) {
+    }
+
+    private record PendingRow(long id, HistoryEvent event) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceRevisions revisions;
+    private final WriteMode writeMode;
+    private final int batchSize;
+    private final long sweepAgeSeconds;
+    private final BlockingQueue<PendingRow> queue;
+
+    // Not synchronized: the allocator does JDBC I/O and must not pin virtual threads
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long lastId = -1;
+
+    @Autowired
+    public TicketHistoryWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ResourceRevisions revisions,
+            @Value("${app.history.write-mode:sync}") String writeMode,
+            @Value("${app.history.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.history.batch-size:500}") int batchSize,
+            @Value("${app.history.outbox-sweep-age-seconds:30}") long sweepAgeSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revisions = revisions;
+        this.writeMode = WriteMode.valueOf(writeMode.trim().toUpperCase());
+        this.batchSize = batchSize;
+        this.sweepAgeSeconds = sweepAgeSeconds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void write(HistoryEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> insert(INSERT_HISTORY, allocate(List.of(event))));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<HistoryEvent> pending = (List<HistoryEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingEventsSynchronization(pending));
+        }
+        pending.add(event);
+    }
+
+    // Moves queued outbox events into ticket_history, batchSize rows per transaction
+    @Scheduled(fixedDelayString = "${app.history.flush-interval-ms:200}")
+    public void flushQueue() {
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<PendingRow> rows = List.copyOf(batch);
+            batch.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insert(INSERT_HISTORY_IF_ABSENT, rows);
+                    jdbcTemplate.batchUpdate("DELETE FROM ticket_history_outbox WHERE id = ?", rows, rows.size(),
+                            (ps, row) -> ps.setLong(1, row.id()));
+                });
+                // The ticket's ETag moved on at its own commit, before these rows were readable
+                revisions.ticketsChanged(rows.stream().map(row -> row.event().ticketId()).collect(Collectors.toSet()));
+            } catch (RuntimeException e) {
+                // The rows are still in the outbox; the sweep will pick them up
+                log.warn("Failed to flush {} ticket history rows, leaving them to the outbox sweep", rows.size(), e);
+            }
+        }
+    }
+
+    // Catches outbox rows that never made it through the queue (overflow, failed flush, restart)
+    @Scheduled(fixedDelayString = "${app.history.outbox-sweep-interval-ms:30000}")
+    public void sweepOutbox() {
+        if (writeMode != WriteMode.OUTBOX) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusSeconds(sweepAgeSeconds));
+        List<Long> ticketIds = transactionTemplate.execute(status -> {
+            List<Long> inserted = jdbcTemplate.queryForList(MOVE_OUTBOX, Long.class, cutoff);
+            jdbcTemplate.update(DELETE_MOVED_OUTBOX, cutoff);
+            return inserted;
+        });
+        if (ticketIds != null && !ticketIds.isEmpty()) {
+            revisions.ticketsChanged(new HashSet<>(ticketIds));
+            log.info("Moved {} ticket history rows from the outbox", ticketIds.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushQueue();
+    }
+
+    private List<PendingRow> allocate(List<HistoryEvent> events) {
+        List<PendingRow> rows = new ArrayList<>(events.size());
+        idLock.lock();
+        try {
+            for (HistoryEvent event : events) {
+                if (nextId > lastId) {
+                    // pooled-lo: each sequence value is the first id of a block of ID_BLOCK_SIZE
+                    nextId = jdbcTemplate.queryForObject("SELECT nextval('ticket_history_seq')", Long.class);
+                    lastId = nextId + ID_BLOCK_SIZE - 1;
+                }
+                rows.add(new PendingRow(nextId++, event));
+            }
+        } finally {
+            idLock.unlock();
+        }
+        return rows;
+    }
+
+    private void insert(String sql, List<PendingRow> rows) {
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, row) -> {
+            HistoryEvent event = row.event();
+            ps.setLong(1, row.id());
+            ps.setLong(2, event.ticketId());
+            ps.setLong(3, event.userId());
+            ps.setString(4, event.field());
+            ps.setString(5, event.oldValue());
+            ps.setString(6, event.newValue());
+            ps.setTimestamp(7, Timestamp.valueOf(event.createdAt()));
+        });
+    }
+
+    private class PendingEventsSynchronization implements TransactionSynchronization {
+
+        private final List<HistoryEvent> events;
+        private List<PendingRow> rows = List.of();
+
+        PendingEventsSynchronization(List<HistoryEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Make sure new tickets are in the database before rows referencing them
+            entityManager.flush();
+            rows = allocate(events);
+            insert(writeMode == WriteMode.SYNC ? INSERT_HISTORY : INSERT_OUTBOX, rows);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (writeMode != WriteMode.OUTBOX) {
+                return;
+            }
+            for (PendingRow row : rows) {
+                if (!queue.offer(row)) {
+                    // Queue full: leave the rest in the outbox for the sweep
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TicketHistoryWriter.this);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.ticketing.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.api.dto.TicketImportResultDTO;
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.enums.TicketFileFormat;
+import com.ticketing.api.repository.CategoryRepository;
+import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk ticket import from CSV or NDJSON, for migrations from legacy systems.
+ * <p>
+ * The input is parsed as a stream. Category and user references (by id, name or username) are
+ * resolved against id maps loaded once up front. Valid rows are inserted {@code app.import.batch-size}
+ * at a time in one JDBC batch per transaction, with ids reserved from the tickets id sequence in
+ * one round trip; the initial status history rows go through {@link TicketHistoryWriter} in the
+ * same transaction. History is dated at the ticket's createdAt, so the monthly ticket_history
+ * partition of every month in a batch is created first. Invalid rows are reported with their line number and skipped; if a batch is
+ * rejected by the database its rows are retried one by one so only the offending rows fail.
+ * <p>
+ * Column names match the export: subject, description, status, priority, createdAt, updatedAt,
+ * resolvedAt, closedAt, dueDate, categoryId/categoryName, createdById/createdByUsername,
+ * assignedToId/assignedToUsername.
+ */
+@Service
+public class TicketImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketImportService.class);
+
+    private static final String ALLOCATE_IDS =
+            "SELECT nextval(pg_get_serial_sequence('tickets', 'id')) FROM generate_series(1, ?)";
+
+    private static final String ENSURE_HISTORY_PARTITION = "SELECT ensure_monthly_partition('ticket_history', ?)";
+
+    private static final String INSERT_TICKET =
+            "INSERT INTO tickets (id, subject, description, status, priority, created_at, updated_at, " +
+            "resolved_at, closed_at, due_date, category_id, created_by_id, assigned_to_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketHistoryWriter historyWriter;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final PrincipalCache principalCache;
+    private final StatsService statsService;
+    private final LatencySketchService latencySketchService;
+    private final TicketSearchIndex searchIndex;
+    private final ResourceRevisions revisions;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final boolean partitionsEnabled;
+
+    @Autowired
+    public TicketImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TicketHistoryWriter historyWriter,
+            UserRepository userRepository,
+            CategoryRepository categoryRepository,
+            PrincipalCache principalCache,
+            StatsService statsService,
+            LatencySketchService latencySketchService,
+            TicketSearchIndex searchIndex,
+            ResourceRevisions revisions,
+            ObjectMapper objectMapper,
+            @Value("${app.import.batch-size:1000}") int batchSize,
+            @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors,
+            @Value("${app.partitions.enabled:true}") boolean partitionsEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.historyWriter = historyWriter;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.principalCache = principalCache;
+        this.statsService = statsService;
+        this.latencySketchService = latencySketchService;
+        this.searchIndex = searchIndex;
+        this.revisions = revisions;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.partitionsEnabled = partitionsEnabled;
+    }
+
+    public TicketImportResultDTO importTickets(InputStream input, TicketFileFormat format) {
+        long start = System.currentTimeMillis();
+        Long importedById = principalCache.requireCurrent().id();
+        References references = loadReferences();
+        ImportProgress progress = new ImportProgress();
+
+        List<PendingTicket> batch = new ArrayList<>(batchSize);
+        try (RecordSource source = format == TicketFileFormat.CSV ? new CsvRecordSource(input) : new NdjsonRecordSource(input)) {
+            SourceRecord record;
+            while ((record = source.next()) != null) {
+                progress.totalRows++;
+                if (record.error() != null) {
+                    progress.fail(record.line(), record.error());
+                    continue;
+                }
+                try {
+                    batch.add(toPendingTicket(record, references, importedById));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(record.line(), e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, importedById, progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(batch, importedById, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (progress.imported > 0) {
+            // Cheaper than per-ticket updates at this volume
+            statsService.reconcile();
+            searchIndex.rebuildAsync();
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Imported {} of {} tickets ({} failed) in {} ms",
+                progress.imported, progress.totalRows, progress.failed, durationMs);
+        return TicketImportResultDTO.builder()
+                .totalRows(progress.totalRows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(durationMs)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void insertBatch(List<PendingTicket> batch, Long importedById, ImportProgress progress) {
+        ensureHistoryPartitions(batch, progress);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch, importedById));
+            progress.imported += batch.size();
+            recordLatencies(batch);
+        } catch (DataAccessException e) {
+            log.debug("Import batch rejected, retrying its {} rows individually", batch.size(), e);
+            for (PendingTicket ticket : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(ticket), importedById));
+                    progress.imported++;
+                    recordLatencies(List.of(ticket));
+                } catch (DataAccessException rowError) {
+                    progress.fail(ticket.line, NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    // Back-dated tickets need history partitions the maintenance job never creates. Each runs in its
+    // own short autocommit statement, so the DDL lock is not held for the batch's transaction.
+    private void ensureHistoryPartitions(List<PendingTicket> batch, ImportProgress progress) {
+        if (!partitionsEnabled) {
+            return;
+        }
+        for (PendingTicket ticket : batch) {
+            YearMonth month = YearMonth.from(ticket.createdAt);
+            if (progress.historyMonths.add(month)) {
+                jdbcTemplate.queryForObject(ENSURE_HISTORY_PARTITION, String.class, month.atDay(1));
+            }
+        }
+    }
+
+    private void insert(List<PendingTicket> tickets, Long importedById) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS, Long.class, tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            tickets.get(i).id = ids.get(i);
+        }
+
+        revisions.ticketListChanged();
+        jdbcTemplate.batchUpdate(INSERT_TICKET, tickets, tickets.size(), (ps, ticket) -> {
+            ps.setLong(1, ticket.id);
+            ps.setString(2, ticket.subject);
+            ps.setString(3, ticket.description);
+            ps.setString(4, ticket.status.name());
+            ps.setString(5, ticket.priority.name());
+            ps.setTimestamp(6, Timestamp.valueOf(ticket.createdAt));
+            ps.setTimestamp(7, timestamp(ticket.updatedAt));
+            ps.setTimestamp(8, timestamp(ticket.resolvedAt));
+            ps.setTimestamp(9, timestamp(ticket.closedAt));
+            ps.setTimestamp(10, timestamp(ticket.dueDate));
+            ps.setObject(11, ticket.categoryId);
+            ps.setLong(12, ticket.createdById);
+            ps.setObject(13, ticket.assignedToId);
+        });
+
+        for (PendingTicket ticket : tickets) {
+            historyWriter.write(new TicketHistoryWriter.HistoryEvent(
+                    ticket.id, importedById, "status", null, ticket.status.name(), ticket.createdAt));
+        }
+    }
+
+    private void recordLatencies(List<PendingTicket> tickets) {
+        for (PendingTicket ticket : tickets) {
+            if (ticket.resolvedAt != null) {
+                latencySketchService.recordResolution(ticket.priority, ticket.categoryId, ticket.assignedToId,
+                        ticket.createdAt, ticket.resolvedAt);
+            }
+        }
+    }
+
+    private References loadReferences() {
+        References references = new References();
+        for (Object[] row : userRepository.findAllIdsAndUsernames()) {
+            references.userIds.add((Long) row[0]);
+            references.usernames.put(((String) row[1]).toLowerCase(Locale.ROOT), (Long) row[0]);
+        }
+        for (Object[] row : categoryRepository.findAllIdsAndNames()) {
+            references.categoryIds.add((Long) row[0]);
+            references.categoryNames.put(((String) row[1]).toLowerCase(Locale.ROOT), (Long) row[0]);
+        }
+        return references;
+    }
+
+    // Validates one record; any problem is reported as an IllegalArgumentException
+    private PendingTicket toPendingTicket(SourceRecord record, References references, Long importedById) {
+        Map<String, String> fields = record.fields();
+        PendingTicket ticket = new PendingTicket(record.line());
+
+        ticket.subject = required(fields, "subject", 200);
+        ticket.description = required(fields, "description", 4000);
+        ticket.priority = enumValue(Priority.class, "priority", fields.get("priority"));
+        if (ticket.priority == null) {
+            throw new IllegalArgumentException("priority is required");
+        }
+
+        ticket.categoryId = reference(fields, "categoryId", "categoryName",
+                references.categoryIds, references.categoryNames, "category");
+        Long createdById = reference(fields, "createdById", "createdByUsername",
+                references.userIds, references.usernames, "user");
+        ticket.createdById = createdById != null ? createdById : importedById;
+        ticket.assignedToId = reference(fields, "assignedToId", "assignedToUsername",
+                references.userIds, references.usernames, "user");
+
+        // Same default as TicketService.createTicket: assigned tickets start in progress
+        Status status = enumValue(Status.class, "status", fields.get("status"));
+        ticket.status = status != null ? status : ticket.assignedToId != null ? Status.IN_PROGRESS : Status.OPEN;
+
+        LocalDateTime createdAt = dateTime(fields, "createdAt");
+        ticket.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+        ticket.updatedAt = dateTime(fields, "updatedAt");
+        ticket.resolvedAt = dateTime(fields, "resolvedAt");
+        ticket.closedAt = dateTime(fields, "closedAt");
+        ticket.dueDate = dateTime(fields, "dueDate");
+        return ticket;
+    }
+
+    private static String required(Map<String, String> fields, String name, int maxLength) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(name + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static LocalDateTime dateTime(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Long reference(Map<String, String> fields, String idField, String nameField,
+                                  Set<Long> ids, Map<String, Long> names, String kind) {
+        String id = fields.get(idField);
+        if (id != null && !id.isBlank()) {
+            try {
+                Long value = Long.valueOf(id.trim());
+                if (!ids.contains(value)) {
+                    throw new IllegalArgumentException("Unknown " + kind + " id in " + idField + ": " + id);
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + idField + ": " + id);
+            }
+        }
+        String name = fields.get(nameField);
+        if (name != null && !name.isBlank()) {
+            Long value = names.get(name.trim().toLowerCase(Locale.ROOT));
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown " + kind + " in " + nameField + ": " + name);
+            }
+            return value;
+        }
+        return null;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static class References {
+        final Set<Long> userIds = new HashSet<>();
+        final Map<String, Long> usernames = new HashMap<>();
+        final Set<Long> categoryIds = new HashSet<>();
+        final Map<String, Long> categoryNames = new HashMap<>();
+    }
+
+    private static class PendingTicket {
+        final long line;
+        Long id;
+        String subject;
+        String description;
+        Status status;
+        Priority priority;
+        LocalDateTime createdAt;
+        LocalDateTime updatedAt;
+        LocalDateTime resolvedAt;
+        LocalDateTime closedAt;
+        LocalDateTime dueDate;
+        Long categoryId;
+        Long createdById;
+        Long assignedToId;
+
+        PendingTicket(long line) {
+            this.line = line;
+        }
+    }
+
+    private class ImportProgress {
+        long totalRows;
+        long imported;
+        long failed;
+        final List<TicketImportResultDTO.RowError> errors = new ArrayList<>();
+        // Months whose ticket_history partition is known to exist
+        final Set<YearMonth> historyMonths = new HashSet<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new TicketImportResultDTO.RowError(line, message));
+            }
+        }
+    }
+
+    // One input record as field name -> value (null for empty), or a parse error
+    private record SourceRecord(long line, Map<String, String> fields, String error) {
+
+        static SourceRecord error(long line, String error) {
+            return new SourceRecord(line, Map.of(), error);
+        }
+    }
+
+    private interface RecordSource extends Closeable {
+        // Next record, or null at end of input
+        SourceRecord next() throws IOException;
+    }
+
+    private class NdjsonRecordSource implements RecordSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRecordSource(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public SourceRecord next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return SourceRecord.error(line, "Expected a JSON object");
+                }
+                Map<String, String> fields = new HashMap<>();
+                node.fields().forEachRemaining(field ->
+                        fields.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+                return new SourceRecord(line, fields, null);
+            } catch (JsonProcessingException e) {
+                return SourceRecord.error(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // RFC 4180 with a header row; quoted fields may span lines
+    private static class CsvRecordSource implements RecordSource {
+
+        private final BufferedReader reader;
+        private final String[] header;
+        private long line;
+        private boolean unterminatedQuote;
+
+        CsvRecordSource(InputStream input) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<String> headerFields = readFields();
+            this.header = headerFields == null ? new String[0]
+                    : headerFields.stream().map(String::trim).toArray(String[]::new);
+        }
+
+        @Override
+        public SourceRecord next() throws IOException {
+            long startLine;
+            List<String> values;
+            do {
+                startLine = line + 1;
+                values = readFields();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isEmpty());
+
+            if (unterminatedQuote) {
+                return SourceRecord.error(startLine, "Unterminated quoted field");
+            }
+            if (values.size() != header.length) {
+                return SourceRecord.error(startLine,
+                        "Expected " + header.length + " fields but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                fields.put(header[i], values.get(i).isEmpty() ? null : values.get(i));
+            }
+            return new SourceRecord(startLine, fields, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private List<String> readFields() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    text = reader.readLine();
+                    if (text == null) {
+                        unterminatedQuote = true;
+                        break;
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
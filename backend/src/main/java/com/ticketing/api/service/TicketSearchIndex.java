@@ -0,0 +1,330 @@
+package com.ticketing.api.service;
+
+import com.ticketing.api.enums.Priority;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.repository.CommentRepository;
+import com.ticketing.api.repository.TicketRepository;
+import com.ticketing.api.repository.projection.TicketRow;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Lucene index over ticket subject, description and comment content, stored on local disk.
+ * <p>
+ * Ticket and comment writes call {@link #reindexTicket}/{@link #removeTicket}; the work runs
+ * after commit on a single background thread, so the index trails the database by at most
+ * the refresh interval. {@link #rebuild()} recreates the index from the database.
+ */
+@Service
+public class TicketSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketSearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String SUBJECT = "subject";
+    private static final String DESCRIPTION = "description";
+    private static final String COMMENTS = "comments";
+    private static final String STATUS = "status";
+    private static final String PRIORITY = "priority";
+    private static final String CATEGORY = "categoryId";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final TicketRepository ticketRepository;
+    private final CommentRepository commentRepository;
+    private final Path indexPath;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @Autowired
+    public TicketSearchIndex(
+            TicketRepository ticketRepository,
+            CommentRepository commentRepository,
+            @Value("${app.search.index-dir:./data/search-index}") String indexDir) {
+        this.ticketRepository = ticketRepository;
+        this.commentRepository = commentRepository;
+        this.indexPath = Paths.get(indexDir);
+    }
+
+    // False until the index has been opened (and built, on first start); callers fall back to SQL
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() throws IOException {
+        Files.createDirectories(indexPath);
+        writer = new IndexWriter(FSDirectory.open(indexPath),
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+
+        if (writer.getDocStats().numDocs == 0) {
+            indexExecutor.submit(this::rebuild);
+        } else {
+            ready.set(true);
+        }
+    }
+
+    /**
+     * Returns ticket ids matching every term of the query (the last term also as a prefix),
+     * best match first, restricted by the optional filters.
+     */
+    public List<Long> search(String queryText, Status status, Priority priority, Long categoryId, int limit) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        List<String> terms = analyze(queryText);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        for (int i = 0; i < terms.size(); i++) {
+            boolean prefix = i == terms.size() - 1;
+            query.add(termQuery(terms.get(i), prefix), BooleanClause.Occur.MUST);
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term(STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+        if (priority != null) {
+            query.add(new TermQuery(new Term(PRIORITY, priority.name())), BooleanClause.Occur.FILTER);
+        }
+        if (categoryId != null) {
+            query.add(new TermQuery(new Term(CATEGORY, categoryId.toString())), BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query.build(), limit);
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void reindexTicket(Long ticketId) {
+        afterCommit(() -> indexTickets(ticketRepository.findTicketRowsByIds(List.of(ticketId))));
+    }
+
+    public void reindexTickets(Collection<Long> ticketIds) {
+        List<Long> ids = List.copyOf(ticketIds);
+        afterCommit(() -> {
+            for (int from = 0; from < ids.size(); from += REBUILD_BATCH_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + REBUILD_BATCH_SIZE, ids.size()));
+                indexTickets(ticketRepository.findTicketRowsByIds(chunk));
+            }
+        });
+    }
+
+    public void removeTicket(Long ticketId) {
+        afterCommit(() -> {
+            writer.deleteDocuments(new Term(ID, ticketId.toString()));
+            searcherManager.maybeRefresh();
+        });
+    }
+
+    public void removeTickets(Collection<Long> ticketIds) {
+        Term[] terms = ticketIds.stream().map(id -> new Term(ID, id.toString())).toArray(Term[]::new);
+        afterCommit(() -> {
+            writer.deleteDocuments(terms);
+            searcherManager.maybeRefresh();
+        });
+    }
+
+    // Recreates the index from the tickets and comments tables
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ready.set(false);
+        try {
+            writer.deleteAll();
+            long afterId = 0L;
+            long indexed = 0;
+            List<TicketRow> batch;
+            do {
+                batch = ticketRepository.findTicketRowsAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    indexTickets(batch);
+                    afterId = batch.get(batch.size() - 1).id();
+                    indexed += batch.size();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready.set(true);
+            log.info("Rebuilt ticket search index with {} tickets in {} ms",
+                    indexed, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("Failed to rebuild ticket search index", e);
+        }
+    }
+
+    public void rebuildAsync() {
+        indexExecutor.submit(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:5000}")
+    public void commit() throws IOException {
+        if (writer != null && writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        indexExecutor.shutdown();
+        if (searcherManager != null) {
+            searcherManager.close();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void indexTickets(List<TicketRow> tickets) throws IOException {
+        if (tickets.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = tickets.stream().map(TicketRow::id).collect(Collectors.toSet());
+        Map<Long, List<String>> comments = new HashMap<>();
+        for (Object[] row : commentRepository.findContentByTicketIds(ids)) {
+            comments.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        for (TicketRow ticket : tickets) {
+            Document document = new Document();
+            document.add(new StringField(ID, ticket.id().toString(), Field.Store.YES));
+            document.add(new TextField(SUBJECT, ticket.subject(), Field.Store.NO));
+            document.add(new TextField(DESCRIPTION, ticket.description(), Field.Store.NO));
+            for (String comment : comments.getOrDefault(ticket.id(), List.of())) {
+                document.add(new TextField(COMMENTS, comment, Field.Store.NO));
+            }
+            document.add(new StringField(STATUS, ticket.status().name(), Field.Store.NO));
+            document.add(new StringField(PRIORITY, ticket.priority().name(), Field.Store.NO));
+            if (ticket.categoryId() != null) {
+                document.add(new StringField(CATEGORY, ticket.categoryId().toString(), Field.Store.NO));
+            }
+            writer.updateDocument(new Term(ID, ticket.id().toString()), document);
+        }
+        searcherManager.maybeRefresh();
+    }
+
+    // Subject matches weigh more than description, description more than comments
+    private Query termQuery(String term, boolean prefix) {
+        BooleanQuery.Builder fields = new BooleanQuery.Builder();
+        addField(fields, SUBJECT, term, 3.0f, prefix);
+        addField(fields, DESCRIPTION, term, 1.5f, prefix);
+        addField(fields, COMMENTS, term, 1.0f, prefix);
+        return fields.build();
+    }
+
+    private void addField(BooleanQuery.Builder fields, String field, String term, float boost, boolean prefix) {
+        fields.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+        if (prefix) {
+            fields.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost / 2), BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(SUBJECT, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private void afterCommit(IndexTask task) {
+        Runnable submit = () -> indexExecutor.submit(() -> {
+            try {
+                task.run();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to update ticket search index; run a rebuild to resynchronize", e);
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit.run();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface IndexTask {
+        void run() throws IOException;
+    }
+}
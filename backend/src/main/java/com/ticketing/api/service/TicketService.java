@@ -1,53 +1,137 @@
 package com.ticketing.api.service;
 
+import com.ticketing.api.dto.AttachmentDTO;
+import com.ticketing.api.dto.CommentDTO;
+import com.ticketing.api.dto.TicketCursorPageDTO;
 import com.ticketing.api.dto.TicketDTO;
+import com.ticketing.api.dto.TicketHistoryDTO;
 import com.ticketing.api.entity.Category;
 import com.ticketing.api.entity.Ticket;
 import com.ticketing.api.entity.TicketHistory;
 import com.ticketing.api.entity.User;
 import com.ticketing.api.enums.Priority;
 import com.ticketing.api.enums.Status;
+import com.ticketing.api.exception.BadRequestException;
+import com.ticketing.api.exception.InvalidCursorException;
 import com.ticketing.api.exception.ResourceNotFoundException;
 import com.ticketing.api.repository.CategoryRepository;
 import com.ticketing.api.repository.TicketRepository;
 import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.repository.projection.TicketRow;
+import com.ticketing.api.security.TicketSecurity;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class TicketService {
 
+    public static final String EXPAND_COMMENTS = "comments";
+    public static final String EXPAND_HISTORY = "history";
+    public static final String EXPAND_ATTACHMENTS = "attachments";
+    private static final Set<String> EXPANSIONS = Set.of(EXPAND_COMMENTS, EXPAND_HISTORY, EXPAND_ATTACHMENTS);
+
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final TicketHistoryService historyService;
+    private final StatsService statsService;
+    private final TicketSearchIndex searchIndex;
+    private final TicketSecurity ticketSecurity;
+    private final TicketArchiveService archiveService;
+    private final AttachmentBlobStore blobStore;
+    private final CommentService commentService;
+    private final AttachmentService attachmentService;
+    private final ResourceRevisions revisions;
+    private final TransactionTemplate readOnlyTransaction;
+    // Runs the queries of an expanded ticket lookup side by side
+    private final ExecutorService detailExecutor;
 
     @Autowired
     public TicketService(
             TicketRepository ticketRepository,
             UserRepository userRepository,
             CategoryRepository categoryRepository,
-            TicketHistoryService historyService) {
+            TicketHistoryService historyService,
+            StatsService statsService,
+            TicketSearchIndex searchIndex,
+            TicketSecurity ticketSecurity,
+            TicketArchiveService archiveService,
+            AttachmentBlobStore blobStore,
+            CommentService commentService,
+            AttachmentService attachmentService,
+            ResourceRevisions revisions,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.tickets.detail.threads:8}") int detailThreads,
+            @Value("${app.tickets.detail.queue-capacity:100}") int detailQueueCapacity) {
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
         this.historyService = historyService;
+        this.statsService = statsService;
+        this.searchIndex = searchIndex;
+        this.ticketSecurity = ticketSecurity;
+        this.archiveService = archiveService;
+        this.blobStore = blobStore;
+        this.commentService = commentService;
+        this.attachmentService = attachmentService;
+        this.revisions = revisions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Bounded because every task holds a pooled connection; once full, the caller runs the
+        // query itself, so an overloaded expand degrades to sequential rather than failing
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(detailThreads, detailThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(detailQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "ticket-detail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        // The caller's authentication goes along: replica routing pins recent writers by user name
+        this.detailExecutor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        detailExecutor.shutdown();
     }
 
+    @Transactional(readOnly = true)
     public List<TicketDTO> getAllTickets() {
-        return ticketRepository.findAll().stream()
+        return ticketRepository.findAllTicketRows().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<TicketDTO> getTicketsWithFilters(
             Status status, 
             Priority priority, 
@@ -60,6 +144,7 @@ public class TicketService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public Page<TicketDTO> getTicketsWithFiltersPaginated(
             Status status, 
             Priority priority, 
@@ -72,18 +157,168 @@ public class TicketService {
                 .map(this::convertToDTO);
     }
     
-    public List<TicketDTO> searchTickets(String searchTerm) {
-        return ticketRepository.searchTickets(searchTerm)
-                .stream()
+    @Transactional(readOnly = true)
+    public TicketCursorPageDTO getTicketsWithFiltersCursor(
+            Status status, 
+            Priority priority, 
+            Long categoryId, 
+            Long createdById, 
+            Long assignedToId,
+            String cursor,
+            int size,
+            boolean includeTotal) {
+        // Fetch one extra row to know whether there is a next page without counting
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TicketRow> tickets;
+        
+        if (cursor == null || cursor.isBlank()) {
+            tickets = ticketRepository.findTicketsWithFiltersFirstPage(
+                    status, priority, categoryId, createdById, assignedToId, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            tickets = ticketRepository.findTicketsWithFiltersAfterCursor(
+                    status, priority, categoryId, createdById, assignedToId,
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+        
+        boolean hasNext = tickets.size() > size;
+        if (hasNext) {
+            tickets = tickets.subList(0, size);
+        }
+        
+        TicketCursorPageDTO page = new TicketCursorPageDTO();
+        page.setContent(tickets.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        page.setSize(tickets.size());
+        page.setHasNext(hasNext);
+        
+        if (hasNext) {
+            TicketRow last = tickets.get(tickets.size() - 1);
+            page.setNextCursor(encodeCursor(last.createdAt(), last.id()));
+        }
+        
+        // The total is opt-in: it costs a full COUNT over the filtered set
+        if (includeTotal) {
+            page.setTotalElements(ticketRepository.countTicketsWithFilters(
+                    status, priority, categoryId, createdById, assignedToId));
+        }
+        
+        return page;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TicketDTO> searchTickets(String searchTerm, Status status, Priority priority, Long categoryId, int limit) {
+        // Fall back to the LIKE scan while the index is being built
+        if (!searchIndex.isReady()) {
+            return ticketRepository.searchTickets(searchTerm)
+                    .stream()
+                    .filter(row -> status == null || row.status() == status)
+                    .filter(row -> priority == null || row.priority() == priority)
+                    .filter(row -> categoryId == null || categoryId.equals(row.categoryId()))
+                    .limit(limit)
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+        
+        List<Long> rankedIds = searchIndex.search(searchTerm, status, priority, categoryId, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        
+        // Load the hits in one query, then restore the index ranking
+        Map<Long, TicketRow> rows = ticketRepository.findTicketRowsByIds(rankedIds).stream()
+                .collect(Collectors.toMap(TicketRow::id, row -> row));
+        return rankedIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
+    
+    public void rebuildSearchIndex() {
+        searchIndex.rebuildAsync();
+    }
 
     public TicketDTO getTicketById(Long id) {
-        Ticket ticket = ticketRepository.findByIdWithDetails(id)
+        return getTicketById(id, Set.of());
+    }
+
+    /**
+     * The ticket with whichever of its comments, history and attachments {@code expand} names,
+     * so the detail page needs one request instead of three. The ticket and each expansion are
+     * one query apiece (users fetched with them) run concurrently on the detail pool, each in its
+     * own read-only transaction, so the lookup takes as long as the slowest of them. Should the
+     * ticket have been archived, all of it comes from its one archived record instead.
+     */
+    public TicketDTO getTicketById(Long id, Set<String> expand) {
+        for (String name : expand) {
+            if (!EXPANSIONS.contains(name)) {
+                throw new BadRequestException("Unknown expand value '" + name + "', expected any of " + EXPANSIONS);
+            }
+        }
+        if (expand.isEmpty()) {
+            return findTicket(id);
+        }
+
+        // Only the hot tables are read side by side; an archived ticket is one read of the archive
+        CompletableFuture<Optional<TicketDTO>> ticket = supplyDetail(() -> findLiveTicket(id));
+        CompletableFuture<List<CommentDTO>> comments = expand.contains(EXPAND_COMMENTS)
+                ? supplyDetail(() -> readOnly(() -> commentService.findLiveComments(id))) : null;
+        CompletableFuture<List<TicketHistoryDTO>> history = expand.contains(EXPAND_HISTORY)
+                ? supplyDetail(() -> readOnly(() -> historyService.findLiveHistory(id))) : null;
+        CompletableFuture<List<AttachmentDTO>> attachments = expand.contains(EXPAND_ATTACHMENTS)
+                ? supplyDetail(() -> readOnly(() -> attachmentService.findLiveAttachments(id))) : null;
+
+        Optional<TicketDTO> live = join(ticket);
+        if (live.isEmpty()) {
+            // The live expansions found nothing for a ticket that is not live; the payload has them all
+            return archiveService.findTicket(id, comments != null, history != null, attachments != null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + id));
+        }
+        TicketDTO dto = live.get();
+        if (comments != null) {
+            dto.setComments(join(comments));
+        }
+        if (history != null) {
+            dto.setHistoryItems(join(history));
+        }
+        if (attachments != null) {
+            dto.setAttachments(join(attachments));
+        }
+        return dto;
+    }
+
+    private TicketDTO findTicket(Long id) {
+        // Tickets closed long ago live in the archive
+        return findLiveTicket(id)
+                .or(() -> archiveService.findTicket(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + id));
-        
-        return convertToDTOWithDetails(ticket);
+    }
+
+    private Optional<TicketDTO> findLiveTicket(Long id) {
+        return readOnly(() -> ticketRepository.findByIdWithDetails(id).map(this::convertToDTO));
+    }
+
+    // Not proxied and often on a pool thread, so the read-only transaction is opened here
+    private <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    private <T> CompletableFuture<T> supplyDetail(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, detailExecutor);
+    }
+
+    // Rethrows what the query threw, so a missing ticket is still a 404
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     @Transactional
@@ -124,6 +359,10 @@ public class TicketService {
         // Create ticket history entry
         historyService.createTicketHistory(savedTicket, "status", null, savedTicket.getStatus().name(), userId);
         
+        statsService.recordTicketChange(null, StatsService.TicketSnapshot.of(savedTicket));
+        searchIndex.reindexTicket(savedTicket.getId());
+        revisions.ticketChanged(savedTicket.getId());
+        
         return convertToDTO(savedTicket);
     }
 
@@ -135,8 +374,10 @@ public class TicketService {
         User updatedBy = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
+        StatsService.TicketSnapshot before = StatsService.TicketSnapshot.of(existingTicket);
+        
         // Track changes for history
-        trackChanges(existingTicket, ticketDTO, userId);
+        historyService.trackChanges(existingTicket, ticketDTO, userId);
         
         // Update fields
         existingTicket.setSubject(ticketDTO.getSubject());
@@ -158,6 +399,7 @@ public class TicketService {
             User assignedTo = userRepository.findById(ticketDTO.getAssignedToId())
                     .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + ticketDTO.getAssignedToId()));
             existingTicket.setAssignedTo(assignedTo);
+            ticketSecurity.invalidateTicket(id);
             
             // If ticket is open and being assigned, automatically set to in progress
             if (existingTicket.getStatus() == Status.OPEN) {
@@ -187,15 +429,24 @@ public class TicketService {
         }
         
         Ticket updatedTicket = ticketRepository.save(existingTicket);
+        statsService.recordTicketChange(before, StatsService.TicketSnapshot.of(updatedTicket));
+        searchIndex.reindexTicket(updatedTicket.getId());
+        revisions.ticketChanged(updatedTicket.getId());
         return convertToDTO(updatedTicket);
     }
 
     @Transactional
     public void deleteTicket(Long id) {
-        if (!ticketRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Ticket not found with id: " + id);
-        }
-        ticketRepository.deleteById(id);
+        Ticket ticket = ticketRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + id));
+        
+        statsService.recordTicketChange(StatsService.TicketSnapshot.of(ticket), null);
+        searchIndex.removeTicket(id);
+        ticketSecurity.invalidateTicket(id);
+        revisions.ticketChanged(id);
+        // The attachment rows go with the ticket (cascade); their files once no other ticket uses them
+        blobStore.releaseTicketAttachments(List.of(id));
+        ticketRepository.delete(ticket);
     }
     
     @Transactional
@@ -209,6 +460,8 @@ public class TicketService {
             return convertToDTO(ticket);
         }
         
+        StatsService.TicketSnapshot before = StatsService.TicketSnapshot.of(ticket);
+        
         ticket.setStatus(newStatus);
         ticket.setUpdatedAt(LocalDateTime.now());
         
@@ -224,6 +477,9 @@ public class TicketService {
         }
         
         Ticket updatedTicket = ticketRepository.save(ticket);
+        statsService.recordTicketChange(before, StatsService.TicketSnapshot.of(updatedTicket));
+        searchIndex.reindexTicket(updatedTicket.getId());
+        revisions.ticketChanged(updatedTicket.getId());
         
         // Create history entry
         historyService.createTicketHistory(updatedTicket, "status", oldStatus.name(), newStatus.name(), userId);
@@ -240,9 +496,11 @@ public class TicketService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + assigneeId));
         
         String oldAssignee = ticket.getAssignedTo() != null ? ticket.getAssignedTo().getUsername() : "None";
+        StatsService.TicketSnapshot before = StatsService.TicketSnapshot.of(ticket);
         
         ticket.setAssignedTo(assignee);
         ticket.setUpdatedAt(LocalDateTime.now());
+        ticketSecurity.invalidateTicket(id);
         
         // If ticket is open, change to in progress
         if (ticket.getStatus() == Status.OPEN) {
@@ -252,6 +510,9 @@ public class TicketService {
         }
         
         Ticket updatedTicket = ticketRepository.save(ticket);
+        statsService.recordTicketChange(before, StatsService.TicketSnapshot.of(updatedTicket));
+        searchIndex.reindexTicket(updatedTicket.getId());
+        revisions.ticketChanged(updatedTicket.getId());
         
         // Create history entry
         historyService.createTicketHistory(updatedTicket, "assignee", oldAssignee, assignee.getUsername(), userId);
@@ -259,47 +520,25 @@ public class TicketService {
         return convertToDTO(updatedTicket);
     }
     
-    private void trackChanges(Ticket existingTicket, TicketDTO newTicketDTO, Long userId) {
-        // Track subject change
-        if (!existingTicket.getSubject().equals(newTicketDTO.getSubject())) {
-            historyService.createTicketHistory(
-                    existingTicket, 
-                    "subject", 
-                    existingTicket.getSubject(), 
-                    newTicketDTO.getSubject(), 
-                    userId);
-        }
-        
-        // Track priority change
-        if (existingTicket.getPriority() != newTicketDTO.getPriority()) {
-            historyService.createTicketHistory(
-                    existingTicket, 
-                    "priority", 
-                    existingTicket.getPriority().name(), 
-                    newTicketDTO.getPriority().name(), 
-                    userId);
-        }
-        
-        // Track category change
-        Long existingCategoryId = existingTicket.getCategory() != null ? existingTicket.getCategory().getId() : null;
-        if ((existingCategoryId == null && newTicketDTO.getCategoryId() != null) || 
-            (existingCategoryId != null && !existingCategoryId.equals(newTicketDTO.getCategoryId()))) {
-            
-            String oldCategory = existingTicket.getCategory() != null ? existingTicket.getCategory().getName() : "None";
-            String newCategory = "Unknown";
-            
-            if (newTicketDTO.getCategoryId() != null) {
-                categoryRepository.findById(newTicketDTO.getCategoryId()).ifPresent(category -> {
-                    newCategory = category.getName();
-                });
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
             }
-            
-            historyService.createTicketHistory(
-                    existingTicket, 
-                    "category", 
-                    oldCategory, 
-                    newCategory, 
-                    userId);
+            // Validate both parts eagerly so a tampered token fails as a bad request
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
         }
     }
     
@@ -335,11 +574,34 @@ public class TicketService {
         return dto;
     }
     
-    private TicketDTO convertToDTOWithDetails(Ticket ticket) {
-        TicketDTO dto = convertToDTO(ticket);
+    private TicketDTO convertToDTO(TicketRow row) {
+        TicketDTO dto = new TicketDTO();
+        dto.setId(row.id());
+        dto.setSubject(row.subject());
+        dto.setDescription(row.description());
+        dto.setStatus(row.status());
+        dto.setPriority(row.priority());
+        dto.setCreatedAt(row.createdAt());
+        dto.setUpdatedAt(row.updatedAt());
+        dto.setResolvedAt(row.resolvedAt());
+        dto.setClosedAt(row.closedAt());
+        dto.setDueDate(row.dueDate());
+        
+        // Relations come pre-joined, no lazy loading involved
+        if (row.categoryId() != null) {
+            dto.setCategoryId(row.categoryId());
+            dto.setCategoryName(row.categoryName());
+        }
+        
+        if (row.createdById() != null) {
+            dto.setCreatedById(row.createdById());
+            dto.setCreatedByName(row.createdByFirstName() + " " + row.createdByLastName());
+        }
         
-        // Additional fields like comments, history, etc. would be loaded here
-        // This would typically involve loading from CommentService, HistoryService, etc.
+        if (row.assignedToId() != null) {
+            dto.setAssignedToId(row.assignedToId());
+            dto.setAssignedToName(row.assignedToFirstName() + " " + row.assignedToLastName());
+        }
         
         return dto;
     }
@@ -5,10 +5,13 @@ import com.ticketing.api.entity.User;
 import com.ticketing.api.enums.Role;
 import com.ticketing.api.exception.ResourceNotFoundException;
 import com.ticketing.api.repository.UserRepository;
+import com.ticketing.api.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,11 +21,16 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final ResourceRevisions revisions;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PrincipalCache principalCache,
+                       ResourceRevisions revisions) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.revisions = revisions;
     }
 
     public List<UserDTO> getAllUsers() {
@@ -80,6 +88,7 @@ public class UserService {
         
         user.setActive(true);
         User savedUser = userRepository.save(user);
+        revisions.usersChanged();
         return convertToDTO(savedUser);
     }
 
@@ -100,6 +109,10 @@ public class UserService {
             throw new IllegalArgumentException("Email already exists");
         }
         
+        // Drop the cached principal under the old username, which may be about to change
+        String oldUsername = existingUser.getUsername();
+        evictPrincipal(() -> principalCache.evict(oldUsername));
+        
         // Update fields
         existingUser.setUsername(userDTO.getUsername());
         existingUser.setFirstName(userDTO.getFirstName());
@@ -116,6 +129,8 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(existingUser);
+        // Names and avatars are copied into ticket and comment responses
+        revisions.usersChanged();
         return convertToDTO(updatedUser);
     }
 
@@ -125,6 +140,8 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        evictPrincipal(() -> principalCache.evictUserId(id));
+        revisions.usersChanged();
     }
 
     @Transactional
@@ -134,6 +151,25 @@ public class UserService {
         
         user.setActive(false);
         userRepository.save(user);
+        String username = user.getUsername();
+        evictPrincipal(() -> principalCache.evict(username));
+        revisions.usersChanged();
+    }
+
+    /**
+     * Evicts now and again after commit: a request that resolves the principal while this
+     * transaction is still open reads the old row and would otherwise cache it until the TTL.
+     */
+    private void evictPrincipal(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
     }
 
     private UserDTO convertToDTO(User user) {
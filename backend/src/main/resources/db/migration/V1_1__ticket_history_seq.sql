@@ -0,0 +1,6 @@
+-- History ids come from a sequence handing out pooled-lo blocks of 50, shared by Hibernate and
+-- TicketHistoryWriter, so history rows can be inserted in JDBC batches. IF NOT EXISTS: some
+-- databases got the sequence from Hibernate before the schema was managed by Flyway. V7 moves
+-- it past the ids the old IDENTITY column already assigned.
+
+CREATE SEQUENCE IF NOT EXISTS ticket_history_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,12 @@
+-- History events staged by TicketHistoryWriter's outbox mode until the sweep moves them into
+-- ticket_history, seconds later; no foreign keys, to keep the insert on the write path narrow.
+
+CREATE TABLE IF NOT EXISTS ticket_history_outbox (
+    id          BIGINT PRIMARY KEY,
+    ticket_id   BIGINT       NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    field       VARCHAR(255) NOT NULL,
+    old_value   VARCHAR(255),
+    new_value   VARCHAR(255),
+    created_at  TIMESTAMP(6) NOT NULL
+);
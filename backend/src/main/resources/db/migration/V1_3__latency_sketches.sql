@@ -0,0 +1,8 @@
+-- Serialized t-digests behind the resolution and first-response percentiles, one row per
+-- sketch, written periodically by LatencySketchService so they survive a restart.
+
+CREATE TABLE IF NOT EXISTS latency_sketches (
+    sketch_key  VARCHAR(100) PRIMARY KEY,
+    data        BYTEA        NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL
+);
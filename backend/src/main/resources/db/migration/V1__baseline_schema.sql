@@ -0,0 +1,85 @@
+-- Baseline schema, equivalent to what hibernate.ddl-auto=update produced from the entities before
+-- the schema was managed by Flyway. Existing databases are baselined at version 1 and skip this
+-- script (spring.flyway.baseline-on-migrate); everything added since goes in later versions.
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username    VARCHAR(50)  NOT NULL UNIQUE,
+    first_name  VARCHAR(50)  NOT NULL,
+    last_name   VARCHAR(50)  NOT NULL,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    role        VARCHAR(255) NOT NULL,
+    department  VARCHAR(255),
+    avatar_url  VARCHAR(255),
+    active      BOOLEAN      NOT NULL
+);
+
+CREATE TABLE roles (
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name  VARCHAR(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE categories (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(100) NOT NULL UNIQUE,
+    description  VARCHAR(500)
+);
+
+CREATE TABLE tickets (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject         VARCHAR(200)  NOT NULL,
+    description     VARCHAR(4000) NOT NULL,
+    status          VARCHAR(255)  NOT NULL,
+    priority        VARCHAR(255)  NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    updated_at      TIMESTAMP(6),
+    resolved_at     TIMESTAMP(6),
+    closed_at       TIMESTAMP(6),
+    due_date        TIMESTAMP(6),
+    category_id     BIGINT REFERENCES categories (id),
+    created_by_id   BIGINT NOT NULL REFERENCES users (id),
+    assigned_to_id  BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE comments (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    content      VARCHAR(2000) NOT NULL,
+    created_at   TIMESTAMP(6)  NOT NULL,
+    updated_at   TIMESTAMP(6),
+    is_internal  BOOLEAN       NOT NULL,
+    ticket_id    BIGINT NOT NULL REFERENCES tickets (id),
+    user_id      BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE attachments (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    filename           VARCHAR(255) NOT NULL,
+    original_filename  VARCHAR(255) NOT NULL,
+    content_type       VARCHAR(255) NOT NULL,
+    file_size          BIGINT       NOT NULL,
+    file_path          VARCHAR(255) NOT NULL,
+    uploaded_at        TIMESTAMP(6) NOT NULL,
+    ticket_id          BIGINT NOT NULL REFERENCES tickets (id),
+    uploaded_by_id     BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE notifications (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    message     VARCHAR(255) NOT NULL,
+    type        VARCHAR(255) NOT NULL,
+    read        BOOLEAN      NOT NULL,
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    ticket_id   BIGINT REFERENCES tickets (id),
+    created_at  TIMESTAMP(6)
+);
+
+CREATE TABLE ticket_history (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    field       VARCHAR(255) NOT NULL,
+    old_value   VARCHAR(255),
+    new_value   VARCHAR(255),
+    created_at  TIMESTAMP(6) NOT NULL,
+    ticket_id   BIGINT NOT NULL REFERENCES tickets (id),
+    user_id     BIGINT NOT NULL REFERENCES users (id)
+);
@@ -0,0 +1,53 @@
+-- Indexes derived from the repository query shapes. CONCURRENTLY so that existing, populated
+-- databases are not locked while they build; Flyway runs this script outside a transaction.
+
+-- TicketRepository.findTicketsWithFilters* / countTicketsWithFilters / findIdsWithFilters:
+-- every filter is optional, so cover the common leading columns, each ending in the sort key.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_assigned_status
+    ON tickets (assigned_to_id, status, created_at DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_created_by_created
+    ON tickets (created_by_id, created_at DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_category_status
+    ON tickets (category_id, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_status_priority
+    ON tickets (status, priority, created_at DESC);
+
+-- Cursor pagination (findTicketsWithFiltersFirstPage/AfterCursor) seeks on (created_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_created_id
+    ON tickets (created_at DESC, id DESC);
+
+-- Incremental exports by updated_at range
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_updated
+    ON tickets (updated_at);
+
+-- Agent work queues only ever look at open work; CLOSED rows are the bulk of the table
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_open_queue
+    ON tickets (assigned_to_id, priority, created_at)
+    WHERE status IN ('OPEN', 'IN_PROGRESS');
+
+-- TicketHistoryRepository.findByTicketIdOrderByCreatedAtDesc / findByTicketIdAndField...
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ticket_history_ticket_created
+    ON ticket_history (ticket_id, created_at DESC);
+-- TicketHistoryRepository.findByUserIdOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ticket_history_user_created
+    ON ticket_history (user_id, created_at DESC);
+
+-- NotificationRepository.findByUserOrderByCreatedAtDesc (list and page)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC);
+-- countByUserAndRead(user, false) / findByUserAndReadOrderByCreatedAtDesc(user, false);
+-- unread rows are a small fraction, so the partial index stays tiny
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC)
+    WHERE read = false;
+
+-- CommentRepository.findByTicketIdOrderByCreatedAt* / existsByTicketIdAndUserIdNot / findContentByTicketIds
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_ticket_created
+    ON comments (ticket_id, created_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_attachments_ticket
+    ON attachments (ticket_id);
+
+-- TicketHistoryWriter outbox sweep (created_at < cutoff)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ticket_history_outbox_created
+    ON ticket_history_outbox (created_at);
@@ -0,0 +1,88 @@
+-- Monthly range partitioning of ticket_history and notifications by created_at.
+-- The primary key has to include the partition key, so it becomes (id, created_at); ids are
+-- still unique because they come from a single sequence. Partitions are named
+-- <table>_pYYYYMM and are created ahead of time by PartitionMaintenanceService.
+
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent TEXT, month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start)::DATE;
+    partition_name TEXT := parent || '_p' || to_char(first_day, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, first_day, (first_day + INTERVAL '1 month')::DATE);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month between the oldest existing row and three months from now
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, from_month DATE, months_ahead INT) RETURNS VOID AS $$
+DECLARE
+    month DATE := date_trunc('month', from_month)::DATE;
+    last_month DATE := (date_trunc('month', now()) + make_interval(months => months_ahead))::DATE;
+BEGIN
+    WHILE month <= last_month LOOP
+        PERFORM ensure_monthly_partition(parent, month);
+        month := (month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ticket_history
+
+ALTER TABLE ticket_history RENAME TO ticket_history_unpartitioned;
+
+CREATE TABLE ticket_history (
+    id          BIGINT       NOT NULL,
+    field       VARCHAR(255) NOT NULL,
+    old_value   VARCHAR(255),
+    new_value   VARCHAR(255),
+    created_at  TIMESTAMP(6) NOT NULL,
+    ticket_id   BIGINT NOT NULL REFERENCES tickets (id),
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+SELECT ensure_monthly_partitions('ticket_history',
+        COALESCE((SELECT MIN(created_at) FROM ticket_history_unpartitioned), now())::DATE, 3);
+
+INSERT INTO ticket_history (id, field, old_value, new_value, created_at, ticket_id, user_id)
+SELECT id, field, old_value, new_value, created_at, ticket_id, user_id FROM ticket_history_unpartitioned;
+
+DROP TABLE ticket_history_unpartitioned;
+
+CREATE INDEX idx_ticket_history_ticket_created ON ticket_history (ticket_id, created_at DESC);
+CREATE INDEX idx_ticket_history_user_created ON ticket_history (user_id, created_at DESC);
+
+-- notifications: identity columns are not allowed on partitioned tables, so use a plain sequence
+
+ALTER TABLE notifications RENAME TO notifications_unpartitioned;
+
+CREATE SEQUENCE notifications_id_seq;
+
+CREATE TABLE notifications (
+    id          BIGINT       NOT NULL DEFAULT nextval('notifications_id_seq'),
+    message     VARCHAR(255) NOT NULL,
+    type        VARCHAR(255) NOT NULL,
+    read        BOOLEAN      NOT NULL,
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    ticket_id   BIGINT REFERENCES tickets (id),
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE notifications_id_seq OWNED BY notifications.id;
+
+SELECT ensure_monthly_partitions('notifications',
+        COALESCE((SELECT MIN(created_at) FROM notifications_unpartitioned), now())::DATE, 3);
+
+INSERT INTO notifications (id, message, type, read, user_id, ticket_id, created_at)
+SELECT id, message, type, read, user_id, ticket_id, COALESCE(created_at, now()) FROM notifications_unpartitioned;
+
+SELECT setval('notifications_id_seq', COALESCE((SELECT MAX(id) FROM notifications), 0) + 1, false);
+
+DROP TABLE notifications_unpartitioned;
+
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at DESC);
+CREATE INDEX idx_notifications_user_unread ON notifications (user_id, created_at DESC) WHERE read = false;
@@ -0,0 +1,25 @@
+-- Cold storage for closed tickets, filled by TicketArchiveService. Each archived ticket is one row:
+-- the ticket together with its comments, history and attachment metadata as gzip-compressed JSON,
+-- plus the few columns needed to find it again without unpacking the payload.
+CREATE TABLE ticket_archive (
+    ticket_id       BIGINT       PRIMARY KEY,
+    created_by_id   BIGINT       NOT NULL,
+    assigned_to_id  BIGINT,
+    category_id     BIGINT,
+    created_at      TIMESTAMP(6) NOT NULL,
+    closed_at       TIMESTAMP(6),
+    archived_at     TIMESTAMP(6) NOT NULL,
+    payload         BYTEA        NOT NULL
+);
+
+-- The payload is already gzip-compressed; store it out of line without a second TOAST compression pass
+ALTER TABLE ticket_archive ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+CREATE INDEX idx_ticket_archive_created_by ON ticket_archive (created_by_id);
+CREATE INDEX idx_ticket_archive_closed_at ON ticket_archive (closed_at);
+
+-- Archive candidates: closed tickets in closing order
+CREATE INDEX idx_tickets_closed_at ON tickets (closed_at) WHERE status = 'CLOSED';
+
+-- Archiving detaches notifications from their ticket by ticket_id
+CREATE INDEX idx_notifications_ticket ON notifications (ticket_id) WHERE ticket_id IS NOT NULL;
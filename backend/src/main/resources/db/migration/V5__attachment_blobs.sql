@@ -0,0 +1,16 @@
+-- Content-addressed attachment storage: each distinct file is stored once under its SHA-256 and
+-- counted once per attachments row that points at it. Rows whose count has dropped to zero are
+-- removed, together with their files, by AttachmentBlobStore's collection run.
+
+CREATE TABLE attachment_blobs (
+    content_hash  VARCHAR(64)  PRIMARY KEY,
+    size          BIGINT       NOT NULL,
+    ref_count     INT          NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL DEFAULT now(),
+    released_at   TIMESTAMP(6)
+);
+
+CREATE INDEX idx_attachment_blobs_unreferenced ON attachment_blobs (released_at) WHERE ref_count = 0;
+
+-- NULL for attachments stored before this migration, which keep their own file
+ALTER TABLE attachments ADD COLUMN content_hash VARCHAR(64);
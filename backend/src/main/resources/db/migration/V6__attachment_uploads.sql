@@ -0,0 +1,17 @@
+-- Resumable attachment uploads in progress. The bytes received so far are in a working file in the
+-- attachment store's tmp directory; its length is the upload offset. Rows are removed when the
+-- upload completes, is cancelled or expires.
+
+CREATE TABLE attachment_uploads (
+    id            VARCHAR(36)  PRIMARY KEY,
+    ticket_id     BIGINT       NOT NULL REFERENCES tickets (id) ON DELETE CASCADE,
+    user_id       BIGINT       NOT NULL REFERENCES users (id),
+    filename      VARCHAR(255) NOT NULL,
+    content_type  VARCHAR(255) NOT NULL,
+    size          BIGINT       NOT NULL,
+    content_hash  VARCHAR(64),
+    created_at    TIMESTAMP(6) NOT NULL DEFAULT now(),
+    updated_at    TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_attachment_uploads_updated_at ON attachment_uploads (updated_at);
@@ -0,0 +1,11 @@
+-- Databases baselined at version 1 never ran V1, so ticket_history_seq may be missing or still
+-- behind ids that were assigned by the old IDENTITY column. Hibernate and TicketHistoryWriter
+-- hand out pooled-lo blocks of 50 starting at nextval, so the sequence has to be past every id
+-- already used, including rows still staged in the outbox.
+
+CREATE SEQUENCE IF NOT EXISTS ticket_history_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE ticket_history_seq INCREMENT BY 50;
+
+SELECT setval('ticket_history_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM ticket_history),
+        (SELECT COALESCE(MAX(id), 0) FROM ticket_history_outbox)) + 50);
@@ -0,0 +1,6 @@
+-- Chunks of a resumable upload are streamed outside any transaction. The instance writing one
+-- holds a lease on the session instead of a row lock, and records the new offset once the chunk
+-- is on disk. Sessions in flight when this runs start again from offset 0.
+ALTER TABLE attachment_uploads ADD COLUMN upload_offset BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE attachment_uploads ADD COLUMN lease_token VARCHAR(36);
+ALTER TABLE attachment_uploads ADD COLUMN leased_until TIMESTAMP(6);
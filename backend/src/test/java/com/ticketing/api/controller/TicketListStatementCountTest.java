@@ -0,0 +1,104 @@
+package com.ticketing.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.api.support.PostgresIntegrationTest;
+import com.ticketing.api.support.StatementCountInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets of the ticket list endpoints. Each list is one projection query (plus its
+ * count where the endpoint reports a total), whatever the number of rows, so an association
+ * that starts loading row by row shows up here as an N+1.
+ */
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TicketListStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int TICKETS = 60;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Several creators, assignees and categories, so per-row loading would not hit one cached entity
+    @BeforeAll
+    void seedTickets() {
+        jdbcTemplate.update(
+                "INSERT INTO users (username, first_name, last_name, email, password, role, active) " +
+                "SELECT 'listuser' || g, 'List', 'User ' || g, 'listuser' || g || '@test.local', '{noop}test', " +
+                "(ARRAY['USER', 'AGENT'])[1 + g % 2], true FROM generate_series(1, 6) g");
+        jdbcTemplate.update(
+                "INSERT INTO categories (name, description) " +
+                "SELECT 'List category ' || g, 'Statement count test' FROM generate_series(1, 4) g");
+        jdbcTemplate.update(
+                "WITH u AS (SELECT array_agg(id ORDER BY id) AS ids FROM users WHERE username LIKE 'listuser%'), " +
+                "c AS (SELECT array_agg(id ORDER BY id) AS ids FROM categories WHERE name LIKE 'List category %') " +
+                "INSERT INTO tickets (subject, description, status, priority, created_at, category_id, " +
+                "created_by_id, assigned_to_id) " +
+                "SELECT 'List ticket ' || g, 'Ticket ' || g, (ARRAY['OPEN', 'IN_PROGRESS', 'RESOLVED'])[1 + g % 3], " +
+                "(ARRAY['LOW', 'MEDIUM', 'HIGH'])[1 + g % 3], now() - g * INTERVAL '1 minute', " +
+                "c.ids[1 + g % 4], u.ids[1 + g % 6], u.ids[1 + (g + 1) % 6] " +
+                "FROM generate_series(1, ?) g CROSS JOIN u CROSS JOIN c", TICKETS);
+    }
+
+    @Test
+    void ticketListIsOneStatement() throws Exception {
+        assertEquals(1, statementsFor(get("/tickets")));
+        assertEquals(1, statementsFor(get("/tickets").param("status", "OPEN")));
+    }
+
+    // More matching rows than the page size, so Spring Data cannot skip the count query
+    @Test
+    void pagedListIsListPlusCount() throws Exception {
+        assertEquals(2, statementsFor(get("/tickets/paged").param("size", String.valueOf(PAGE_SIZE))));
+        assertEquals(2, statementsFor(get("/tickets/paged")
+                .param("size", String.valueOf(PAGE_SIZE)).param("page", "2")));
+    }
+
+    @Test
+    void cursorPageIsOneStatementAndTotalIsOptIn() throws Exception {
+        assertEquals(1, statementsFor(get("/tickets/cursor").param("size", String.valueOf(PAGE_SIZE))));
+        assertEquals(2, statementsFor(get("/tickets/cursor")
+                .param("size", String.valueOf(PAGE_SIZE)).param("includeTotal", "true")));
+
+        String body = mockMvc.perform(get("/tickets/cursor").param("size", String.valueOf(PAGE_SIZE)).with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode page = objectMapper.readTree(body);
+        assertTrue(page.get("hasNext").asBoolean());
+
+        assertEquals(1, statementsFor(get("/tickets/cursor")
+                .param("size", String.valueOf(PAGE_SIZE)).param("cursor", page.get("nextCursor").asText())));
+    }
+
+    private int statementsFor(MockHttpServletRequestBuilder request) throws Exception {
+        int statements;
+        StatementCountInspector.start();
+        try {
+            mockMvc.perform(request.with(jwt())).andExpect(status().isOk());
+        } finally {
+            statements = StatementCountInspector.stop();
+        }
+        return statements;
+    }
+}
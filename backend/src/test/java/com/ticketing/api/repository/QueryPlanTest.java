@@ -0,0 +1,209 @@
+package com.ticketing.api.repository;
+
+import com.ticketing.api.config.LoadTestDataSeeder;
+import com.ticketing.api.entity.User;
+import com.ticketing.api.enums.Status;
+import com.ticketing.api.repository.projection.TicketRow;
+import com.ticketing.api.support.PostgresIntegrationTest;
+import com.ticketing.api.support.SqlCapture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks that the hot repository queries are answered from an index once the tables hold a
+ * realistic amount of data.
+ * <p>
+ * The database is filled by {@link LoadTestDataSeeder} at a reduced scale, plus notifications,
+ * and analyzed. Each repository method is then called for real; every statement it sends is
+ * replayed under {@code EXPLAIN} with the same bind values, and the test fails when the plan
+ * sequentially scans one of the large tables. Users and categories are small enough that a
+ * scan of them inside a join is the right plan, and empty future partitions cost nothing, so
+ * those are not reported.
+ */
+@Import(SqlCapture.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest extends PostgresIntegrationTest {
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\S+)");
+    private static final Pattern NOTIFICATION_PARTITION = Pattern.compile("notifications_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // The window NotificationService bounds its lookups to with the default six-month retention
+    private static final LocalDateTime WINDOW_START = YearMonth.now().minusMonths(6).atDay(1).atStartOfDay();
+    private static final LocalDateTime WINDOW_END = LocalDateTime.now().plusDays(1);
+    private static final Pattern LARGE_TABLE =
+            Pattern.compile("tickets|comments|ticket_history(_p\\d{6})?|notifications(_p\\d{6})?");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketHistoryRepository ticketHistoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User agent;
+    private User requester;
+    private Long ticketId;
+
+    @BeforeAll
+    void seedDatabase() {
+        // Other test classes share the database; the seeder only fills an empty one
+        jdbcTemplate.execute("TRUNCATE tickets, users, categories CASCADE");
+        new LoadTestDataSeeder(jdbcTemplate, 5, 100, 2000, 20, 100_000, 3, 2, 50_000).run(null);
+
+        jdbcTemplate.execute("SELECT ensure_monthly_partitions('notifications', (now() - INTERVAL '13 months')::date, 3)");
+        jdbcTemplate.update(
+                "INSERT INTO notifications (message, type, read, user_id, ticket_id, created_at) " +
+                "SELECT 'Ticket updated', 'INFO', s % 10 <> 0, u.id, NULL, now() - s * INTERVAL '17 days' " +
+                "FROM users u CROSS JOIN generate_series(1, 20) s");
+        jdbcTemplate.execute("ANALYZE");
+
+        agent = userRepository.findByUsername("agent7").orElseThrow();
+        requester = userRepository.findByUsername("user42").orElseThrow();
+        ticketId = jdbcTemplate.queryForObject("SELECT max(id) / 2 FROM tickets", Long.class);
+    }
+
+    @Test
+    void ticketListsUseIndexes() {
+        assertIndexed("TicketRepository.findTicketsWithFilters(status, assignedTo)",
+                () -> ticketRepository.findTicketsWithFilters(Status.OPEN, null, null, null, agent.getId()));
+        assertIndexed("TicketRepository.findTicketsWithFilters(createdBy)",
+                () -> ticketRepository.findTicketsWithFilters(null, null, null, requester.getId(), null));
+        assertIndexed("TicketRepository.countTicketsWithFilters(status, assignedTo)",
+                () -> ticketRepository.countTicketsWithFilters(Status.IN_PROGRESS, null, null, null, agent.getId()));
+    }
+
+    @Test
+    void cursorPagesUseIndexes() {
+        List<TicketRow> firstPage = new ArrayList<>();
+        assertIndexed("TicketRepository.findTicketsWithFiltersFirstPage",
+                () -> firstPage.addAll(ticketRepository.findTicketsWithFiltersFirstPage(
+                        null, null, null, null, null, PageRequest.of(0, 21))));
+        assertFalse(firstPage.isEmpty());
+
+        TicketRow last = firstPage.get(firstPage.size() - 1);
+        assertIndexed("TicketRepository.findTicketsWithFiltersAfterCursor",
+                () -> ticketRepository.findTicketsWithFiltersAfterCursor(
+                        null, null, null, null, null, last.createdAt(), last.id(), PageRequest.of(0, 21)));
+    }
+
+    @Test
+    void ownershipChecksUseIndexes() {
+        assertIndexed("TicketRepository.existsByIdAndAssignedToId",
+                () -> ticketRepository.existsByIdAndAssignedToId(ticketId, agent.getId()));
+        assertIndexed("TicketRepository.existsByIdAndCreatedById",
+                () -> ticketRepository.existsByIdAndCreatedById(ticketId, requester.getId()));
+    }
+
+    @Test
+    void ticketDetailQueriesUseIndexes() {
+        assertIndexed("TicketHistoryRepository.findByTicketIdOrderByCreatedAtDesc",
+                () -> ticketHistoryRepository.findByTicketIdOrderByCreatedAtDesc(ticketId));
+        assertIndexed("CommentRepository.findByTicketIdOrderByCreatedAtAsc",
+                () -> commentRepository.findByTicketIdOrderByCreatedAtAsc(ticketId));
+    }
+
+    @Test
+    void notificationQueriesUseIndexes() {
+        assertIndexed("NotificationRepository.findByUserCreatedBetween",
+                () -> notificationRepository.findByUserCreatedBetween(requester, WINDOW_START, WINDOW_END, PageRequest.of(0, 10)));
+        assertIndexed("NotificationRepository.countByUserAndReadCreatedBetween",
+                () -> notificationRepository.countByUserAndReadCreatedBetween(requester, false, WINDOW_START, WINDOW_END));
+    }
+
+    @Test
+    void notificationQueriesOnlyVisitPartitionsInTheWindow() {
+        assertPruned("NotificationRepository.findByUserCreatedBetween",
+                () -> notificationRepository.findByUserCreatedBetween(requester, WINDOW_START, WINDOW_END));
+        assertPruned("NotificationRepository.countByUserAndReadCreatedBetween",
+                () -> notificationRepository.countByUserAndReadCreatedBetween(requester, false, WINDOW_START, WINDOW_END));
+        assertPruned("NotificationRepository.findByIdCreatedBetween",
+                () -> notificationRepository.findByIdCreatedBetween(1L, WINDOW_START, WINDOW_END));
+    }
+
+    private void assertPruned(String name, Runnable query) {
+        String oldest = PARTITION_SUFFIX.format(YearMonth.from(WINDOW_START));
+        String newest = PARTITION_SUFFIX.format(YearMonth.from(WINDOW_END));
+        for (SqlCapture.CapturedStatement statement : SqlCapture.capture(query)) {
+            List<String> plan = explain(statement);
+            for (String line : plan) {
+                Matcher matcher = NOTIFICATION_PARTITION.matcher(line);
+                while (matcher.find()) {
+                    String month = matcher.group(1);
+                    if (month.compareTo(oldest) < 0 || month.compareTo(newest) > 0) {
+                        fail(name + " visits notifications_p" + month + ", outside the window:\n  "
+                                + String.join("\n  ", plan));
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertIndexed(String name, Runnable query) {
+        List<SqlCapture.CapturedStatement> statements = SqlCapture.capture(query);
+        assertFalse(statements.isEmpty(), name + " sent no SQL");
+
+        List<String> failures = new ArrayList<>();
+        for (SqlCapture.CapturedStatement statement : statements) {
+            List<String> plan = explain(statement);
+            for (String line : plan) {
+                Matcher matcher = SEQ_SCAN.matcher(line);
+                if (matcher.find() && LARGE_TABLE.matcher(matcher.group(1)).matches() && hasRows(matcher.group(1))) {
+                    failures.add(statement.sql() + "\n  " + String.join("\n  ", plan));
+                    break;
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail(name + " scans a large table sequentially:\n" + String.join("\n", failures));
+        }
+    }
+
+    private List<String> explain(SqlCapture.CapturedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement explain = statement.prepare(connection, "EXPLAIN ");
+                 ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+            return plan;
+        });
+    }
+
+    private boolean hasRows(String table) {
+        Double rows = jdbcTemplate.queryForObject(
+                "SELECT reltuples FROM pg_class WHERE relname = ?", Double.class, table);
+        return rows != null && rows > 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ticketing.api.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base for tests that need the real schema: one PostgreSQL container is started for the whole
+ * run and Flyway migrates it when the first context starts. Test classes share the database, so
+ * each seeds rows under its own names instead of expecting empty tables. Requests are
+ * authenticated with {@code SecurityMockMvcRequestPostProcessors.jwt()}, so Keycloak is not needed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @MockBean
+    protected JwtDecoder jwtDecoder;
+}
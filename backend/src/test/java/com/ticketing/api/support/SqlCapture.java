@@ -0,0 +1,128 @@
+package com.ticketing.api.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the statements the application prepares on the current thread, with the values bound
+ * to them, so a test can replay exactly what a repository method sent, for example under
+ * {@code EXPLAIN}. Import {@link Config} to wrap the application's {@link DataSource}.
+ */
+public final class SqlCapture {
+
+    private static final ThreadLocal<List<CapturedStatement>> CURRENT = new ThreadLocal<>();
+
+    private SqlCapture() {
+    }
+
+    // Runs the action and returns every statement it prepared, in order
+    public static List<CapturedStatement> capture(Runnable action) {
+        List<CapturedStatement> statements = new ArrayList<>();
+        CURRENT.set(statements);
+        try {
+            action.run();
+        } finally {
+            CURRENT.remove();
+        }
+        return statements;
+    }
+
+    public record CapturedStatement(String sql, List<Bind> binds) {
+
+        // Prepares prefix + sql on the given connection with the same values bound
+        public PreparedStatement prepare(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(prefix + sql);
+            try {
+                for (Bind bind : binds) {
+                    bind.method().invoke(statement, bind.args());
+                }
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                statement.close();
+                throw new SQLException("Cannot replay bind values for: " + sql, e);
+            }
+            return statement;
+        }
+    }
+
+    public record Bind(Method method, Object[] args) {
+    }
+
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        public static BeanPostProcessor sqlCaptureDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                            ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capturing(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capturing(super.getConnection(username, password));
+        }
+
+        private static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        List<CapturedStatement> statements = CURRENT.get();
+                        if (statements != null && result instanceof PreparedStatement statement
+                                && method.getName().equals("prepareStatement")) {
+                            CapturedStatement captured = new CapturedStatement((String) args[0], new ArrayList<>());
+                            statements.add(captured);
+                            return recording(statement, captured.binds());
+                        }
+                        return result;
+                    });
+        }
+
+        // Bind setters are the set* methods taking a parameter index first and a value after it
+        private static PreparedStatement recording(PreparedStatement statement, List<Bind> binds) {
+            return (PreparedStatement) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && method.getParameterCount() >= 2
+                                && method.getParameterTypes()[0] == int.class) {
+                            binds.add(new Bind(method, args.clone()));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
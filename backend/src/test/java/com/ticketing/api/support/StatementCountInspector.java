@@ -0,0 +1,36 @@
+package com.ticketing.api.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}.
+ * <p>
+ * Registered through {@code hibernate.session_factory.statement_inspector} in the test profile,
+ * so Hibernate creates the instance and the count has to live in a static thread local. MockMvc
+ * runs the request on the calling thread, which makes the count cover exactly one request.
+ */
+public class StatementCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    // Ends counting and returns the number of statements seen since start()
+    public static int stop() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
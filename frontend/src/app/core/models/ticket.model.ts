@@ -1,4 +1,6 @@
 import { Category } from "./category.model";
+import { Comment } from "./comment.model";
+import { TicketHistory } from "./ticket-history.model";
 import { User } from "./user.model";
 
 export type Status = 'OPEN' | 'IN_PROGRESS' | 'RESOLVED' | 'CLOSED';
@@ -17,7 +19,7 @@ export interface Ticket {
   assignedToId?: number;
   assignedTo?: User;
   comments?: Comment[];
-  history?: TicketHistory[];
+  historyItems?: TicketHistory[];
   createdAt: string;
   updatedAt: string;
 }
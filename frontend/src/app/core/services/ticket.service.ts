@@ -15,8 +15,10 @@ export class TicketService {
     return this.apiService.get<Ticket[]>(this.endpoint, filters);
   }
 
-  getTicket(id: number): Observable<Ticket> {
-    return this.apiService.get<Ticket>(`${this.endpoint}/${id}`);
+  // expand embeds related data ('comments', 'history', 'attachments') in the same response
+  getTicket(id: number, expand: string[] = []): Observable<Ticket> {
+    const params = expand.length ? { expand: expand.join(',') } : {};
+    return this.apiService.get<Ticket>(`${this.endpoint}/${id}`, params);
   }
 
   createTicket(ticket: TicketFormData): Observable<Ticket> {
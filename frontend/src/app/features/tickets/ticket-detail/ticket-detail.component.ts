@@ -48,10 +48,11 @@ export class TicketDetailComponent implements OnInit {
     this.loading = true;
     this.error = null;
 
-    this.ticketService.getTicket(this.ticketId).subscribe({
+    this.ticketService.getTicket(this.ticketId, ['comments']).subscribe({
       next: (data) => {
         this.ticket = data;
-        this.loadComments();
+        this.comments = data.comments ?? [];
+        this.loading = false;
       },
       error: (err) => {
         console.error('Error loading ticket', err);